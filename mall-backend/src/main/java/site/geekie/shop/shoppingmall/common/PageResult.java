@@ -31,6 +31,9 @@ public class PageResult<T> {
     // 总页数
     private int pages;
 
+    // 下一页游标（仅游标分页返回；为 null 表示没有更多数据）
+    private String nextCursor;
+
     /**
      * 构造分页结果（自动计算总页数）
      *
@@ -46,4 +49,20 @@ public class PageResult<T> {
         this.size = size;
         this.pages = (int) Math.ceil((double) total / size);
     }
+
+    /**
+     * 构造游标分页结果
+     * 游标分页不执行 COUNT 查询，total 与 pages 固定为 -1
+     *
+     * @param list 数据列表
+     * @param size 每页大小
+     * @param nextCursor 下一页游标，没有更多数据时为 null
+     */
+    public PageResult(List<T> list, int size, String nextCursor) {
+        this.list = list;
+        this.total = -1;
+        this.size = size;
+        this.pages = -1;
+        this.nextCursor = nextCursor;
+    }
 }
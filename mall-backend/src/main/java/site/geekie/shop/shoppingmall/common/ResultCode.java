@@ -44,6 +44,9 @@ public enum ResultCode {
     //服务器内部错误
     INTERNAL_SERVER_ERROR(500, "Internal server error"),
 
+    //服务暂不可用（如启动预热未完成）
+    SERVICE_UNAVAILABLE(503, "Service unavailable"),
+
     // ========== 用户相关错误码 (40001-40099) ==========
     //用户名已存在
     USERNAME_ALREADY_EXISTS(40001, "Username already exists"),
@@ -0,0 +1,118 @@
+package site.geekie.shop.shoppingmall.config;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import site.geekie.shop.shoppingmall.util.PageCountCache;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 数据版本号拦截器（MyBatis 插件）
+ *
+ * 拦截商品 / 订单 / 用户 / 分类表的写操作，影响行数大于 0 时在事务提交后递增该表的数据版本号，
+ * 使 PageCountCache 中缓存的分页总数、ProductListingCache 中缓存的列表页失效。
+ * 写入分散在下单、支付回调、MQ 消费者等多处，统一在 Mapper 层拦截，避免逐个调用点维护。
+ *
+ * 不改变列表筛选列（关键词、分类、状态、角色）的语句不递增版本号，
+ * 如库存 / 销量扣减、支付方式与时间字段更新、修改密码，避免高频写入让缓存失去作用。
+ */
+@Component
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class DataVersionInterceptor implements Interceptor {
+
+    private static final String MAPPER_PACKAGE = "site.geekie.shop.shoppingmall.mapper.";
+
+    // Mapper 接口 -> 表名
+    private static final Map<String, String> TABLES = Map.of(
+            "ProductMapper", PageCountCache.PRODUCT,
+            "OrderMapper", PageCountCache.ORDER,
+            "UserMapper", PageCountCache.USER,
+            "CategoryMapper", PageCountCache.CATEGORY
+    );
+
+    // 不影响列表筛选结果的写操作
+    private static final Set<String> IGNORED_STATEMENTS = Set.of(
+            "ProductMapper.decreaseStock",
+            "ProductMapper.increaseStock",
+            "ProductMapper.increaseSalesCount",
+            "ProductMapper.decreaseSalesCount",
+            "OrderMapper.updatePaymentMethod",
+            "OrderMapper.updatePaymentTime",
+            "OrderMapper.updateShipTime",
+            "OrderMapper.updateCompleteTime",
+            "UserMapper.updatePassword"
+    );
+
+    // 事务内已修改的表，提交后统一递增一次
+    private static final Object RESOURCE_KEY = new Object();
+
+    private final PageCountCache pageCountCache;
+
+    /**
+     * 延迟注入：拦截器随 SqlSessionFactory 创建，而 PageCountCache 又依赖 Mapper，直接注入会循环依赖
+     */
+    public DataVersionInterceptor(@Lazy PageCountCache pageCountCache) {
+        this.pageCountCache = pageCountCache;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (result instanceof Integer rows && rows > 0) {
+            String table = tableOf(ms.getId());
+            if (table != null) {
+                onWrite(table);
+            }
+        }
+        return result;
+    }
+
+    private static String tableOf(String statementId) {
+        if (!statementId.startsWith(MAPPER_PACKAGE)) {
+            return null;
+        }
+        String statement = statementId.substring(MAPPER_PACKAGE.length());
+        if (IGNORED_STATEMENTS.contains(statement)) {
+            return null;
+        }
+        int dot = statement.indexOf('.');
+        return dot < 0 ? null : TABLES.get(statement.substring(0, dot));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onWrite(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pageCountCache.bumpVersion(table);
+            return;
+        }
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(RESOURCE_KEY);
+        if (tables == null) {
+            Set<String> pending = new LinkedHashSet<>();
+            tables = pending;
+            TransactionSynchronizationManager.bindResource(RESOURCE_KEY, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(pageCountCache::bumpVersion);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RESOURCE_KEY);
+                }
+            });
+        }
+        tables.add(table);
+    }
+}
@@ -5,10 +5,14 @@ import io.lettuce.core.protocol.ProtocolVersion;
 import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * Redis 配置类
  * 强制 Lettuce 使用 RESP2 协议，解决 Redis 8.x 下 HELLO 命令认证顺序问题
+ *
+ * 同时提供 Pub/Sub 监听容器，供本地缓存跨节点失效广播使用。
  */
 @Configuration
 public class RedisConfig {
@@ -21,4 +25,15 @@ public class RedisConfig {
                         .build()
         );
     }
+
+    /**
+     * Redis Pub/Sub 监听容器
+     * 各组件在初始化时向容器注册自己的频道监听器
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
@@ -1,6 +1,8 @@
 package site.geekie.shop.shoppingmall.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,6 +14,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,6 +23,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import site.geekie.shop.shoppingmall.security.BoundedPasswordEncoder;
 import site.geekie.shop.shoppingmall.security.JwtAuthenticationEntryPoint;
 import site.geekie.shop.shoppingmall.security.JwtAuthenticationFilter;
 
@@ -59,6 +63,24 @@ public class SecurityConfig {
     // JWT认证入口点，未登录时返回 HTTP 401
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
+    // 密码哈希升级服务（与 userDetailsService 为同一实现）
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    // 指标注册表，用于密码哈希线程池指标
+    private final MeterRegistry meterRegistry;
+
+    // BCrypt 工作因子
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // 密码哈希线程数
+    @Value("${auth.password.hash-threads:4}")
+    private int hashThreads;
+
+    // 密码哈希等待队列容量
+    @Value("${auth.password.queue-capacity:64}")
+    private int hashQueueCapacity;
+
     /**
      * 配置安全过滤器链
      * 定义HTTP安全策略，包括认证、授权和过滤器配置
@@ -96,6 +118,7 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/v1/auth/**",      // 认证接口
                                 "/api/v1/health",       // 健康检查
+                                "/api/v1/health/ready", // 就绪检查（缓存预热）
                                 "/api/v1/categories/**",// 分类接口（查询公开，管理需ADMIN）
                                 "/api/v1/products/**",  // 商品接口（查询公开，管理需ADMIN）
                                 "/api/v1/payment/notify", // 支付回调接口（模拟第三方回调）
@@ -114,6 +137,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/user/**").hasRole("USER")
                         // ADMIN角色访问路径
                         .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                        // 监控端点（指标）仅管理员可访问
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // 其他所有请求需要认证
                         .anyRequest().authenticated()
                 )
@@ -136,6 +161,7 @@ public class SecurityConfig {
      * 配置内容：
      *   - 用户详情服务：从数据库加载用户信息
      *   - 密码编码器：使用BCrypt验证密码
+     *   - 密码升级服务：旧哈希工作因子低于配置时，登录成功后透明重新哈希
  *
      * @return 配置好的认证提供者
      */
@@ -144,6 +170,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -171,14 +198,20 @@ public class SecurityConfig {
      * 特点：
      *   - 自动加盐
      *   - 单向加密
-     *   - 计算成本可配置
+     *   - 计算成本可配置（auth.password.bcrypt-strength）
      *   - 每次加密结果不同（彩虹表攻击无效）
+     *   - 在专用有界线程池中执行，队列满时快速拒绝（RATE_LIMIT_EXCEEDED），不占用请求线程计算
  *
      * @return BCrypt密码编码器实例
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                hashThreads,
+                hashQueueCapacity,
+                meterRegistry
+        );
     }
 
     /**
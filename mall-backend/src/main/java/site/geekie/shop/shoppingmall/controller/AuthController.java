@@ -42,6 +42,20 @@ public class AuthController {
         return Result.success("注册成功", null);
     }
 
+    /**
+     * 用户名可用性检查接口
+     * 供注册表单实时校验，优先由布隆过滤器判定，可能存在时再查库确认
+     *
+     * @param username 用户名
+     * @return true-可用，false-已被注册
+     */
+    @Operation(summary = "检查用户名是否可用")
+    @RateLimiter(count = 30, period = 60)
+    @GetMapping("/username-available")
+    public Result<Boolean> isUsernameAvailable(@RequestParam String username) {
+        return Result.success(authService.isUsernameAvailable(username));
+    }
+
     /**
      * 用户登录接口
      *
@@ -3,11 +3,15 @@ package site.geekie.shop.shoppingmall.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import site.geekie.shop.shoppingmall.annotation.RateLimiter;
 import site.geekie.shop.shoppingmall.common.Result;
 import site.geekie.shop.shoppingmall.vo.CategoryVO;
 import site.geekie.shop.shoppingmall.service.CategoryService;
+import site.geekie.shop.shoppingmall.util.ETags;
+import site.geekie.shop.shoppingmall.util.RawJsonResult;
 
 import java.util.List;
 
@@ -17,6 +21,8 @@ import java.util.List;
  *
  * 接口路径前缀：/api/v1/categories
  * 认证要求：管理接口需要ADMIN角色，查询接口公开
+ * 分类列表与分类树支持条件 GET（ETag / If-None-Match，见 ETags），
+ * 并直接输出 Redis 中缓存的 JSON（见 RawJsonResult），响应格式与其他接口相同
  */
 @Tag(name = "Category", description = "商品分类接口")
 @RestController
@@ -25,6 +31,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final RawJsonResult rawJsonResult;
 
     /**
      * 获取所有分类列表
@@ -34,9 +41,12 @@ public class CategoryController {
      */
     @Operation(summary = "获取所有分类")
     @GetMapping
-    public Result<List<CategoryVO>> getAllCategories() {
-        List<CategoryVO> categories = categoryService.getAllCategories();
-        return Result.success(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest webRequest) {
+        byte[] categories = categoryService.getAllCategoriesJson();
+        if (ETags.notModified(webRequest, categories)) {
+            return null;
+        }
+        return rawJsonResult.ok(categories);
     }
 
     /**
@@ -49,9 +59,12 @@ public class CategoryController {
     @Operation(summary = "获取分类树")
     @GetMapping("/tree")
     @RateLimiter(count = 60, period = 60)
-    public Result<List<CategoryVO>> getCategoryTree() {
-        List<CategoryVO> tree = categoryService.getCategoryTree();
-        return Result.success(tree);
+    public ResponseEntity<byte[]> getCategoryTree(WebRequest webRequest) {
+        byte[] tree = categoryService.getCategoryTreeJson();
+        if (ETags.notModified(webRequest, tree)) {
+            return null;
+        }
+        return rawJsonResult.ok(tree);
     }
 
     /**
@@ -2,8 +2,13 @@ package site.geekie.shop.shoppingmall.controller;
 
 import site.geekie.shop.shoppingmall.annotation.IgnoreLog;
 import site.geekie.shop.shoppingmall.common.Result;
+import site.geekie.shop.shoppingmall.common.ResultCode;
+import site.geekie.shop.shoppingmall.util.CacheWarmupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,8 +30,11 @@ import java.util.Map;
 @Tag(name = "Health Check", description = "health检查接口")
 @RestController
 @RequestMapping("/api/v1")
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final CacheWarmupService cacheWarmupService;
+
     /**
      * 健康检查接口
      * 返回应用程序的运行状态和基本信息
@@ -50,4 +58,22 @@ public class HealthController {
         data.put("version", "1.0.0");
         return Result.success(data);
     }
+
+    /**
+     * 就绪检查接口
+     * 启动缓存预热完成（或超过截止时间）前返回 HTTP 503，负载均衡器据此延迟引流
+     *
+     * @return 预热状态（ready、timedOut、elapsedMs）
+     */
+    @IgnoreLog
+    @Operation(summary = "Readiness check")
+    @GetMapping("/health/ready")
+    public ResponseEntity<Result<Map<String, Object>>> ready() {
+        Map<String, Object> data = cacheWarmupService.status();
+        if (!cacheWarmupService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Result.error(ResultCode.SERVICE_UNAVAILABLE, "Cache warm-up in progress", data));
+        }
+        return ResponseEntity.ok(Result.success(data));
+    }
 }
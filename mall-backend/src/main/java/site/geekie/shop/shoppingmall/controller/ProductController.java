@@ -3,14 +3,21 @@ package site.geekie.shop.shoppingmall.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import site.geekie.shop.shoppingmall.common.PageResult;
 import site.geekie.shop.shoppingmall.common.Result;
 import site.geekie.shop.shoppingmall.vo.ProductVO;
 import site.geekie.shop.shoppingmall.annotation.RateLimiter;
 import site.geekie.shop.shoppingmall.service.ProductService;
+import site.geekie.shop.shoppingmall.util.ETags;
+import site.geekie.shop.shoppingmall.util.FieldProjection;
+import site.geekie.shop.shoppingmall.util.ProductSuggestIndex;
+import site.geekie.shop.shoppingmall.vo.SuggestionVO;
 
 import java.util.List;
 
@@ -20,6 +27,11 @@ import java.util.List;
  *
  * 接口路径前缀：/api/v1/products
  * 认证要求：管理接口需要ADMIN角色，查询接口公开
+ *
+ * 列表接口支持可选参数 fields（逗号分隔的 ProductVO 字段名，如 fields=id,name,price,mainImage），
+ * 只返回指定字段；列表接口本身不返回 images / detail，需要时请查询商品详情。
+ *
+ * 列表与详情接口支持条件 GET：响应带 ETag，请求头 If-None-Match 与当前数据一致时返回 304（见 ETags）。
  */
 @Tag(name = "Product", description = "商品接口")
 @RestController
@@ -29,23 +41,36 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSuggestIndex productSuggestIndex;
 
     /**
      * 获取所有商品列表
      * 公开接口，无需认证
+     * 带 keyword 时经全文检索索引匹配；sortBy=relevance 按相关度排序
      *
+     * @param cursor 可选，传入时改用游标分页（第一页传空值，之后传上一页的 nextCursor），忽略 page
+     * @param fields 可选，只返回指定字段
      * @return 所有商品列表
      */
     @Operation(summary = "获取所有商品")
     @GetMapping
-    public Result<PageResult<ProductVO>> getAllProducts(
+    public Result<PageResult<?>> getAllProducts(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") @Max(100) int size,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "sales") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
-        return Result.success(productService.getAllProducts(page, size, keyword, categoryId, 1, sortBy, sortDir));
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        PageResult<ProductVO> result = cursor != null
+                ? productService.getAllProductsByCursor(cursor, size, keyword, categoryId, 1, sortBy, sortDir)
+                : productService.getAllProducts(page, size, keyword, categoryId, 1, sortBy, sortDir);
+        if (ETags.notModified(webRequest, result)) {
+            return null;
+        }
+        return Result.success(FieldProjection.apply(result, fields, ProductVO.class));
     }
 
     /**
@@ -53,13 +78,19 @@ public class ProductController {
      * 公开接口，无需认证
      *
      * @param categoryId 分类ID
+     * @param fields 可选，只返回指定字段
      * @return 商品列表
      */
     @Operation(summary = "根据分类获取商品")
     @GetMapping("/category/{categoryId}")
-    public Result<List<ProductVO>> getProductsByCategory(@PathVariable Long categoryId) {
+    public Result<List<?>> getProductsByCategory(@PathVariable Long categoryId,
+                                                 @RequestParam(required = false) String fields,
+                                                 WebRequest webRequest) {
         List<ProductVO> products = productService.getProductsByCategoryId(categoryId);
-        return Result.success(products);
+        if (ETags.notModified(webRequest, products)) {
+            return null;
+        }
+        return Result.success(FieldProjection.apply(products, fields, ProductVO.class));
     }
 
     /**
@@ -67,16 +98,53 @@ public class ProductController {
      * 公开接口，无需认证
      *
      * @param keyword 搜索关键词
+     * @param cursor 可选，传入时改用游标分页（第一页传空值，之后传上一页的 nextCursor），忽略 page
+     * @param fields 可选，只返回指定字段
      * @return 商品列表
      */
     @Operation(summary = "搜索商品")
     @RateLimiter(count = 15, period = 60)
     @GetMapping("/search")
-    public Result<PageResult<ProductVO>> searchProducts(
+    public Result<PageResult<?>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") @Max(100) int size) {
-        return Result.success(productService.searchProducts(keyword, page, size));
+            @RequestParam(defaultValue = "10") @Max(100) int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        PageResult<ProductVO> result = cursor != null
+                ? productService.searchProductsByCursor(keyword, cursor, size)
+                : productService.searchProducts(keyword, page, size);
+        return Result.success(FieldProjection.apply(result, fields, ProductVO.class));
+    }
+
+    /**
+     * 搜索联想
+     * 公开接口，无需认证；按前缀匹配商品名称和分类名称，按销量排序，只读内存索引
+     *
+     * @param q 用户输入
+     * @param limit 返回条数（默认10，最大20）
+     * @return 联想词列表
+     */
+    @Operation(summary = "搜索联想")
+    @GetMapping("/suggest")
+    public Result<List<SuggestionVO>> suggest(@RequestParam(defaultValue = "") String q,
+                                              @RequestParam(defaultValue = "10") @Max(20) int limit) {
+        return Result.success(productSuggestIndex.suggest(q, limit));
+    }
+
+    /**
+     * 批量获取商品
+     * 公开接口，无需认证；用于购物车、收藏等一次展示多个商品的场景
+     *
+     * @param ids 商品ID列表（逗号分隔，最多100个）
+     * @param fields 可选，只返回指定字段
+     * @return 商品列表（按传入顺序，不存在的商品跳过）
+     */
+    @Operation(summary = "批量获取商品")
+    @GetMapping("/batch")
+    public Result<List<?>> getProductsByIds(@RequestParam @NotEmpty @Size(max = 100) List<Long> ids,
+                                            @RequestParam(required = false) String fields) {
+        return Result.success(FieldProjection.apply(productService.getProductsByIds(ids), fields, ProductVO.class));
     }
 
     /**
@@ -88,8 +156,11 @@ public class ProductController {
      */
     @Operation(summary = "获取商品详情")
     @GetMapping("/{id}")
-    public Result<ProductVO> getProductById(@PathVariable Long id) {
+    public Result<ProductVO> getProductById(@PathVariable Long id, WebRequest webRequest) {
         ProductVO product = productService.getProductById(id);
+        if (ETags.notModified(webRequest, product)) {
+            return null;
+        }
         return Result.success(product);
     }
 
@@ -36,6 +36,7 @@ public class AdminOrderController {
      * 获取所有订单（管理员）
      * GET /api/v1/admin/orders
      *
+     * @param cursor 可选，传入时改用游标分页（第一页传空值，之后传上一页的 nextCursor），忽略 page
      * @return 所有订单列表
      */
     @Operation(summary = "获取所有订单（管理员）")
@@ -44,7 +45,11 @@ public class AdminOrderController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") @Max(100) int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(orderService.getAllOrdersByCursor(cursor, size, sortBy, sortDir));
+        }
         return Result.success(orderService.getAllOrders(page, size, sortBy, sortDir));
     }
 
@@ -11,8 +11,12 @@ import org.springframework.web.bind.annotation.*;
 import site.geekie.shop.shoppingmall.common.PageResult;
 import site.geekie.shop.shoppingmall.common.Result;
 import site.geekie.shop.shoppingmall.dto.ProductDTO;
+import site.geekie.shop.shoppingmall.vo.HotProductVO;
 import site.geekie.shop.shoppingmall.vo.ProductVO;
 import site.geekie.shop.shoppingmall.service.ProductService;
+import site.geekie.shop.shoppingmall.util.ProductCacheService;
+
+import java.util.List;
 
 /**
  * 管理员-商品管理控制器
@@ -31,11 +35,13 @@ import site.geekie.shop.shoppingmall.service.ProductService;
 public class AdminProductController {
 
     private final ProductService productService;
+    private final ProductCacheService productCacheService;
 
     /**
      * 获取所有商品（管理员）
      * GET /api/v1/admin/products
      *
+     * @param cursor 可选，传入时改用游标分页（第一页传空值，之后传上一页的 nextCursor），忽略 page
      * @return 商品列表
      */
     @Operation(summary = "获取所有商品（管理员）")
@@ -47,13 +53,30 @@ public class AdminProductController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor) {
         Integer statusInt = null;
         if ("ON_SALE".equals(status)) statusInt = 1;
         else if ("OFF_SALE".equals(status)) statusInt = 0;
+        if (cursor != null) {
+            return Result.success(productService.getAllProductsByCursor(cursor, size, keyword, categoryId, statusInt, sortBy, sortDir));
+        }
         return Result.success(productService.getAllProducts(page, size, keyword, categoryId, statusInt, sortBy, sortDir));
     }
 
+    /**
+     * 获取热点商品（管理员）
+     * GET /api/v1/admin/products/hot-keys
+     * 返回当前节点按访问频率识别出的热点商品、估算 QPS 及是否已常驻本地缓存
+     *
+     * @return 热点商品列表（按 QPS 倒序）
+     */
+    @Operation(summary = "获取热点商品（管理员）")
+    @GetMapping("/hot-keys")
+    public Result<List<HotProductVO>> getHotProducts() {
+        return Result.success(productCacheService.getHotProducts());
+    }
+
     /**
      * 获取商品详情（管理员）
      * GET /api/v1/admin/products/{id}
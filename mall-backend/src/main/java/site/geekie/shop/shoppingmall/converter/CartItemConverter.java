@@ -5,10 +5,10 @@ import org.mapstruct.Mapping;
 import site.geekie.shop.shoppingmall.entity.CartItemDO;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
 import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+import site.geekie.shop.shoppingmall.util.ProductCacheService;
 import site.geekie.shop.shoppingmall.vo.CartItemVO;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -72,13 +72,13 @@ public interface CartItemConverter {
 
     /**
      * 批量转换购物车项列表（优化版本，避免N+1查询）
-     * 先批量查询所有商品ID，构建Map缓存，然后逐个填充
+     * 先经商品缓存批量获取所有商品（MGET + 一次回源查询），然后逐个填充
      *
      * @param cartItems 购物车项DO列表
-     * @param productMapper 商品Mapper
+     * @param productCacheService 商品缓存服务
      * @return 完整的购物车项VO列表
      */
-    default List<CartItemVO> toVOList(List<CartItemDO> cartItems, ProductMapper productMapper) {
+    default List<CartItemVO> toVOList(List<CartItemDO> cartItems, ProductCacheService productCacheService) {
         if (cartItems == null || cartItems.isEmpty()) {
             return List.of();
         }
@@ -89,14 +89,8 @@ public interface CartItemConverter {
                 .distinct()
                 .collect(Collectors.toList());
 
-        // 批量查询所有商品，构建Map缓存
-        Map<Long, ProductDO> productMap = new HashMap<>();
-        for (Long productId : productIds) {
-            ProductDO product = productMapper.findById(productId);
-            if (product != null) {
-                productMap.put(productId, product);
-            }
-        }
+        // 批量获取所有商品
+        Map<Long, ProductDO> productMap = productCacheService.getProducts(productIds);
 
         // 转换列表，使用缓存的商品数据
         return cartItems.stream()
@@ -7,7 +7,10 @@ import site.geekie.shop.shoppingmall.dto.CategoryDTO;
 import site.geekie.shop.shoppingmall.entity.CategoryDO;
 import site.geekie.shop.shoppingmall.vo.CategoryVO;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分类转换器
@@ -33,4 +36,27 @@ public interface CategoryConverter {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     void updateDOFromDTO(CategoryDTO dto, @MappingTarget CategoryDO target);
+
+    /**
+     * 构建分类树形结构
+     * 一次遍历建立 父ID -> 子分类 索引，再为每个分类挂上子分类列表，O(n)；
+     * 子分类顺序与输入顺序一致，无子分类的节点 children 保持为 null
+     *
+     * @param categories 全部分类（会被修改 children 字段）
+     * @param rootId 根节点的父ID（一级分类为 0）
+     * @return 树形结构的分类列表
+     */
+    default List<CategoryVO> buildTree(List<CategoryVO> categories, Long rootId) {
+        Map<Long, List<CategoryVO>> childrenByParent = new HashMap<>();
+        for (CategoryVO category : categories) {
+            childrenByParent.computeIfAbsent(category.getParentId(), k -> new ArrayList<>()).add(category);
+        }
+        for (CategoryVO category : categories) {
+            List<CategoryVO> children = childrenByParent.get(category.getId());
+            if (children != null) {
+                category.setChildren(children);
+            }
+        }
+        return childrenByParent.getOrDefault(rootId, new ArrayList<>());
+    }
 }
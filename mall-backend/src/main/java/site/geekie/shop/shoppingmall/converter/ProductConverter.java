@@ -2,20 +2,19 @@ package site.geekie.shop.shoppingmall.converter;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import site.geekie.shop.shoppingmall.entity.CategoryDO;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
-import site.geekie.shop.shoppingmall.mapper.CategoryMapper;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
+import site.geekie.shop.shoppingmall.util.CategorySnapshot;
 import site.geekie.shop.shoppingmall.vo.ProductVO;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 商品转换器
  * 负责 ProductDO 与 ProductVO 之间的转换
- * 包含关联查询优化逻辑，避免 N+1 问题
+ * 分类名称从分类快照（CategorySnapshot）中填充，不查询数据库
  */
 @Mapper(componentModel = "spring")
 public interface ProductConverter {
@@ -30,15 +29,27 @@ public interface ProductConverter {
     @Mapping(target = "categoryName", ignore = true)
     ProductVO toVO(ProductDO product);
 
+    /**
+     * 将列表投影 ProductSummaryDO 转换为 ProductVO（基础映射）
+     * 注意：categoryName、images、detail 字段均为 null
+     *
+     * @param product 商品列表投影
+     * @return 商品VO
+     */
+    @Mapping(target = "categoryName", ignore = true)
+    @Mapping(target = "images", ignore = true)
+    @Mapping(target = "detail", ignore = true)
+    ProductVO toVO(ProductSummaryDO product);
+
     /**
      * 将 ProductDO 转换为 ProductVO 并填充分类名称
      * 适用于单个商品转换
      *
      * @param product 商品实体
-     * @param categoryMapper 分类Mapper，用于查询分类信息
+     * @param categories 分类快照，用于查找分类名称
      * @return 商品VO（包含categoryName）
      */
-    default ProductVO toVOWithCategory(ProductDO product, CategoryMapper categoryMapper) {
+    default ProductVO toVOWithCategory(ProductDO product, CategorySnapshot categories) {
         if (product == null) {
             return null;
         }
@@ -47,61 +58,46 @@ public interface ProductConverter {
         ProductVO vo = toVO(product);
 
         // 2. 填充分类名称
-        if (product.getCategoryId() != null) {
-            CategoryDO category = categoryMapper.findById(product.getCategoryId());
-            if (category != null) {
-                vo.setCategoryName(category.getName());
-            }
-        }
+        vo.setCategoryName(categories.nameOf(product.getCategoryId()));
 
         return vo;
     }
 
     /**
      * 批量将 ProductDO 转换为 ProductVO 并填充分类名称
-     * 使用 IN 查询优化，避免 N+1 问题
-     *
-     * 性能优化策略：
-     * 1. 收集所有唯一的 categoryId
-     * 2. 批量查询所有分类（一次 SQL）
-     * 3. 构建 Map<Long, CategoryDO> 缓存
-     * 4. 遍历商品列表时从缓存中获取分类名称
+     * 分类名称从内存快照中查找，不查询数据库
      *
      * @param products 商品实体列表
-     * @param categoryMapper 分类Mapper，用于批量查询分类信息
+     * @param categories 分类快照，用于查找分类名称
      * @return 商品VO列表（包含categoryName）
      */
-    default List<ProductVO> toVOList(List<ProductDO> products, CategoryMapper categoryMapper) {
+    default List<ProductVO> toVOList(List<ProductDO> products, CategorySnapshot categories) {
         if (products == null || products.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // 1. 收集所有唯一的 categoryId
-        List<Long> categoryIds = products.stream()
-                .map(ProductDO::getCategoryId)
-                .filter(id -> id != null)
-                .distinct()
+        return products.stream()
+                .map(product -> toVOWithCategory(product, categories))
                 .collect(Collectors.toList());
+    }
 
-        // 2. 批量查询所有分类，构建 Map 缓存（避免 N+1 查询问题）
-        Map<Long, CategoryDO> categoryMap = categoryIds.isEmpty()
-                ? Collections.emptyMap()
-                : categoryMapper.findByIds(categoryIds).stream()
-                        .collect(Collectors.toMap(CategoryDO::getId, c -> c));
+    /**
+     * 批量将列表投影 ProductSummaryDO 转换为 ProductVO 并填充分类名称
+     * 分类名称同样从内存快照中查找
+     *
+     * @param products 商品列表投影
+     * @param categories 分类快照，用于查找分类名称
+     * @return 商品VO列表（包含categoryName，不含images/detail）
+     */
+    default List<ProductVO> toSummaryVOList(List<ProductSummaryDO> products, CategorySnapshot categories) {
+        if (products == null || products.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        // 3. 转换商品列表并从缓存中填充分类名称
         return products.stream()
                 .map(product -> {
                     ProductVO vo = toVO(product);
-
-                    // 从缓存中获取分类名称
-                    if (product.getCategoryId() != null) {
-                        CategoryDO category = categoryMap.get(product.getCategoryId());
-                        if (category != null) {
-                            vo.setCategoryName(category.getName());
-                        }
-                    }
-
+                    vo.setCategoryName(categories.nameOf(product.getCategoryId()));
                     return vo;
                 })
                 .collect(Collectors.toList());
@@ -0,0 +1,65 @@
+package site.geekie.shop.shoppingmall.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品列表投影
+ * 对应数据库表：mall_product 中列表卡片需要的字段，不含 images / detail 大字段
+ */
+@Data
+public class ProductSummaryDO {
+
+    /**
+     * 商品ID（主键）
+     */
+    private Long id;
+
+    /**
+     * 分类ID（外键）
+     */
+    private Long categoryId;
+
+    /**
+     * 商品名称
+     */
+    private String name;
+
+    /**
+     * 副标题/卖点
+     */
+    private String subtitle;
+
+    /**
+     * 主图URL
+     */
+    private String mainImage;
+
+    /**
+     * 商品价格
+     */
+    private BigDecimal price;
+
+    /**
+     * 库存数量
+     */
+    private Integer stock;
+
+    /**
+     * 状态
+     * 0-下架，1-上架
+     */
+    private Integer status;
+
+    /**
+     * 累计销量
+     */
+    private Integer salesCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
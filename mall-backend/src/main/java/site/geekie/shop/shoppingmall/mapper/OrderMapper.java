@@ -49,6 +49,24 @@ public interface OrderMapper {
      */
     List<OrderDO> findAll(@Param("sortColumn") String sortColumn, @Param("sortDir") String sortDir);
 
+    /**
+     * 游标分页查询所有订单（不执行 COUNT）
+     *
+     * @param sortColumn 排序列（白名单校验后传入，须非空）
+     * @param sortDir 排序方向（ASC/DESC）
+     * @param seekOp 定位比较符（ASC 为 &gt;，DESC 为 &lt;）
+     * @param cursorValue 上一页最后一行的排序列值，第一页为 null
+     * @param cursorId 上一页最后一行的订单ID，第一页为 null
+     * @param limit 最多返回行数
+     * @return 订单列表
+     */
+    List<OrderDO> findAllAfter(@Param("sortColumn") String sortColumn,
+                               @Param("sortDir") String sortDir,
+                               @Param("seekOp") String seekOp,
+                               @Param("cursorValue") Object cursorValue,
+                               @Param("cursorId") Long cursorId,
+                               @Param("limit") int limit);
+
     /**
      * 根据订单状态查询所有订单（管理员用）
      *
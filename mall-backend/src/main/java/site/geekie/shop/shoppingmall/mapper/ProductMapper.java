@@ -2,9 +2,14 @@ package site.geekie.shop.shoppingmall.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品Mapper接口
@@ -21,6 +26,14 @@ public interface ProductMapper {
      */
     ProductDO findById(@Param("id") Long id);
 
+    /**
+     * 根据ID列表批量查询商品
+     *
+     * @param ids 商品ID列表（不能为空）
+     * @return 商品列表（不存在的ID不返回，顺序不保证）
+     */
+    List<ProductDO> findByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 查询所有商品
      * 按创建时间倒序排列
@@ -29,31 +42,71 @@ public interface ProductMapper {
      */
     List<ProductDO> findAll();
 
+    /**
+     * 流式扫描全部商品的检索字段（id、category_id、name、subtitle、status、sales_count）
+     * 逐行回调，不把全表加载到内存；用于启动时构建全文检索索引
+     *
+     * @param handler 逐行处理器
+     */
+    void scanSearchFields(ResultHandler<ProductSummaryDO> handler);
+
+    /**
+     * 流式读取全部上架商品（id、stock、sales_count），按销量倒序
+     * 返回的 Cursor 须在事务内迭代并关闭；用于启动时预热商品缓存与库存缓存
+     *
+     * @return 上架商品游标
+     */
+    Cursor<ProductSummaryDO> streamOnSale();
+
     /**
      * 带过滤条件查询所有商品
-     * keyword/categoryId/status 均为 null 时等价于 findAll
+     * ids/keyword/categoryId/status 均为 null 时等价于 findAll
      *
+     * @param ids 商品ID范围（全文检索命中的商品），null 表示不限制
      * @param keyword 搜索关键词（匹配商品名称或副标题）
      * @param categoryId 分类ID
      * @param status 状态（0-下架，1-上架）
      * @param sortColumn 排序列（白名单校验后传入）
      * @param sortDir 排序方向（ASC/DESC）
-     * @return 商品列表
+     * @return 商品列表（列表投影，不含 images / detail）
+     */
+    List<ProductSummaryDO> findAllWithFilter(@Param("ids") Collection<Long> ids,
+                                            @Param("keyword") String keyword,
+                                            @Param("categoryId") Long categoryId,
+                                            @Param("status") Integer status,
+                                            @Param("sortColumn") String sortColumn,
+                                            @Param("sortDir") String sortDir);
+
+    /**
+     * 游标分页查询商品（筛选条件同 findAllWithFilter，不执行 COUNT）
+     *
+     * @param sortColumn 排序列（白名单校验后传入，须非空）
+     * @param sortDir 排序方向（ASC/DESC）
+     * @param seekOp 定位比较符（ASC 为 &gt;，DESC 为 &lt;）
+     * @param cursorValue 上一页最后一行的排序列值，第一页为 null
+     * @param cursorId 上一页最后一行的商品ID，第一页为 null
+     * @param limit 最多返回行数
+     * @return 商品列表（列表投影，不含 images / detail）
      */
-    List<ProductDO> findAllWithFilter(@Param("keyword") String keyword,
-                                     @Param("categoryId") Long categoryId,
-                                     @Param("status") Integer status,
-                                     @Param("sortColumn") String sortColumn,
-                                     @Param("sortDir") String sortDir);
+    List<ProductSummaryDO> findAllAfter(@Param("ids") Collection<Long> ids,
+                                       @Param("keyword") String keyword,
+                                       @Param("categoryId") Long categoryId,
+                                       @Param("status") Integer status,
+                                       @Param("sortColumn") String sortColumn,
+                                       @Param("sortDir") String sortDir,
+                                       @Param("seekOp") String seekOp,
+                                       @Param("cursorValue") Object cursorValue,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
 
     /**
      * 根据分类ID查询商品列表
      * 按创建时间倒序排列
      *
      * @param categoryId 分类ID
-     * @return 商品列表
+     * @return 商品列表（列表投影，不含 images / detail）
      */
-    List<ProductDO> findByCategoryId(@Param("categoryId") Long categoryId);
+    List<ProductSummaryDO> findByCategoryId(@Param("categoryId") Long categoryId);
 
     /**
      * 根据关键词搜索商品
@@ -61,9 +114,9 @@ public interface ProductMapper {
      * 按创建时间倒序排列
      *
      * @param keyword 搜索关键词
-     * @return 商品列表
+     * @return 商品列表（列表投影，不含 images / detail）
      */
-    List<ProductDO> searchByKeyword(@Param("keyword") String keyword);
+    List<ProductSummaryDO> searchByKeyword(@Param("keyword") String keyword);
 
     /**
      * 插入新商品
@@ -98,6 +151,13 @@ public interface ProductMapper {
      */
     int countByCategoryId(@Param("categoryId") Long categoryId);
 
+    /**
+     * 按分类统计商品数量（一次查询全部分类）
+     *
+     * @return 统计结果行（categoryId、productCount），没有商品的分类不返回
+     */
+    List<Map<String, Object>> countGroupByCategory();
+
     /**
      * 扣减库存
      * 使用乐观锁，确保库存不为负
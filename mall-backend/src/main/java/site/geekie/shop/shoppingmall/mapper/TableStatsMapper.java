@@ -0,0 +1,23 @@
+package site.geekie.shop.shoppingmall.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 表统计信息Mapper接口
+ * 提供基于执行计划的行数估算
+ */
+@Mapper
+public interface TableStatsMapper {
+
+    /**
+     * 全表扫描的执行计划（rows 列为 InnoDB 统计信息给出的估算行数）
+     *
+     * @param table 表名（须经白名单校验，直接拼入 SQL）
+     * @return EXPLAIN 结果行
+     */
+    List<Map<String, Object>> explainFullScan(@Param("table") String table);
+}
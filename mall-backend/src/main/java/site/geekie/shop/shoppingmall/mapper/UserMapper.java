@@ -1,6 +1,7 @@
 package site.geekie.shop.shoppingmall.mapper;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 import site.geekie.shop.shoppingmall.entity.UserDO;
 
 /**
@@ -25,6 +26,23 @@ public interface UserMapper {
      */
     UserDO findById(@Param("id") Long id);
 
+    /**
+     * 根据用户ID查询认证所需字段（不含 password）
+     * 供 JWT 认证链路回源使用，避免把密码哈希读入内存
+     *
+     * @param id 用户ID
+     * @return 用户实体（password 为 null），不存在则返回null
+     */
+    UserDO findAuthById(@Param("id") Long id);
+
+    /**
+     * 流式扫描全部用户的唯一性字段（username、email、phone）
+     * 逐行回调，不把全表加载到内存；用于启动时构建注册布隆过滤器
+     *
+     * @param handler 逐行处理器
+     */
+    void scanRegistrationKeys(ResultHandler<UserDO> handler);
+
     /**
      * 根据用户名查询用户
      * 用户名具有唯一性约束
@@ -12,14 +12,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import site.geekie.shop.shoppingmall.common.Result;
 import site.geekie.shop.shoppingmall.common.ResultCode;
+import site.geekie.shop.shoppingmall.dto.UserAuthCache;
+import site.geekie.shop.shoppingmall.util.TokenBlacklistService;
 
 import java.io.IOException;
 
@@ -29,8 +29,9 @@ import java.io.IOException;
  *
  * 工作流程：
  *   - 从请求头中提取JWT Token
- *   - 解析Token获取用户名
- *   - 加载用户详情
+ *   - 按 token 哈希取已验签载荷（VerifiedTokenCache 未命中时一次验签解析，后续步骤复用）
+ *   - 检查黑名单与强制登出标记（本地副本查询，不访问 Redis）
+ *   - 按 userId 分级解析用户认证信息（本地缓存 → Redis → DB，不读取 password）
  *   - 验证Token有效性
  *   - 设置Security认证上下文
  *
@@ -43,8 +44,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // JWT Token提供者
     private final JwtTokenProvider tokenProvider;
 
-    // 用户详情服务
-    private final UserDetailsService userDetailsService;
+    // 已验签 token 缓存
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // 用户认证信息分级解析器
+    private final UserPrincipalResolver principalResolver;
+
+    // Token 黑名单 / 强制登出检查
+    private final TokenBlacklistService tokenBlacklistService;
 
     // JSON 序列化器，用于写出 401 响应体
     private final ObjectMapper objectMapper;
@@ -68,21 +75,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                // 从Token中获取用户名
-                String username = tokenProvider.getUsernameFromToken(jwt);
+                // 已验签的 token 直接复用载荷，否则一次验签解析
+                String tokenHash = tokenBlacklistService.hashToken(jwt);
+                JwtClaims claims = verifiedTokenCache.verify(tokenHash, jwt);
 
-                // 加载用户详情
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // 加载用户认证信息（不查询 password；本地缓存未命中时一次往返读取全部 Redis 认证状态）
+                UserAuthCache authUser = principalResolver.resolve(claims.getUserId(), tokenHash);
+
+                // 已登出或被强制登出的 token 直接拒绝
+                if (tokenBlacklistService.isBlacklistedHash(tokenHash)
+                        || tokenBlacklistService.isForceLoggedOut(claims.getUserId(), claims.getIssuedAt())) {
+                    sendUnauthorizedResponse(response, "登录已失效，请重新登录");
+                    return;
+                }
 
                 // 验证Token
-                SecurityUser securityUser = (SecurityUser) userDetails;
-                if (tokenProvider.validateToken(jwt, securityUser.getUser())) {
+                if (authUser != null
+                        && tokenProvider.validateToken(claims, authUser.getId(), authUser.getCreatedAtMillis())) {
+                    SecurityUser securityUser = SecurityUser.fromAuthCache(authUser);
+
                     // 创建认证对象
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails,
+                                    securityUser,
                                     null,
-                                    userDetails.getAuthorities()
+                                    securityUser.getAuthorities()
                             );
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -0,0 +1,73 @@
+package site.geekie.shop.shoppingmall.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * 已验签的 JWT 载荷
+ *
+ * 由 {@link JwtTokenProvider#parseToken(String)} 在一次验签后构造，
+ * 在同一请求内向下传递，避免对同一 token 重复解析和 HMAC 校验。
+ *
+ * 字段均为不可变值，仅保留认证链路需要的载荷：
+ *   - userId: subject（用户ID）
+ *   - username: 用户名（仅信息携带）
+ *   - createdAt: 用户创建时间（毫秒），用于辅助验证
+ *   - issuedAt: 签发时间（毫秒），用于与强制登出标记比对
+ *   - expiration: 过期时间（毫秒）
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JwtClaims {
+
+    private final Long userId;
+
+    private final String username;
+
+    private final Long createdAt;
+
+    private final long issuedAt;
+
+    private final long expiration;
+
+    /**
+     * 从 jjwt 解析结果构造
+     *
+     * @param claims 已验签的 Claims
+     * @return 认证载荷
+     */
+    public static JwtClaims from(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        return new JwtClaims(
+                Long.parseLong(claims.getSubject()),
+                claims.get("username", String.class),
+                claims.get("createdAt", Long.class),
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                claims.getExpiration().getTime()
+        );
+    }
+
+    /**
+     * 过期时间
+     *
+     * @return 过期时间 Date 对象
+     */
+    public Date getExpirationDate() {
+        return new Date(expiration);
+    }
+
+    /**
+     * 判断是否已过期
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return true-已过期
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiration < nowMillis;
+    }
+}
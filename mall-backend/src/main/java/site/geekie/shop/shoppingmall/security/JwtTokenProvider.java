@@ -1,8 +1,10 @@
 package site.geekie.shop.shoppingmall.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -28,6 +30,8 @@ import java.util.Map;
  *
  * 验证策略（性能优先）：
  *   - 仅校验 id + createdAt，不查询数据库中的 username/email
+ *   - SecretKey 与 JwtParser 启动时构建一次并复用（二者均线程安全）
+ *   - 请求链路通过 {@link #parseToken(String)} 一次验签得到 {@link JwtClaims}，向下传递，不重复解析
  */
 @Slf4j
 @Component
@@ -39,8 +43,22 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // 签名密钥（启动时派生一次）
+    private SecretKey signingKey;
+
+    // 预构建的解析器（线程安全，全局复用）
+    private JwtParser jwtParser;
+
+    /**
+     * 初始化签名密钥和解析器
+     * 避免每次解析都重新派生密钥、重新构建 JwtParser
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
@@ -64,10 +82,21 @@ public class JwtTokenProvider {
                 .subject(String.valueOf(user.getId()))
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * 解析并验签 Token（每个请求只应调用一次）
+     * 签名错误、格式错误或已过期时抛出 JwtException（含 ExpiredJwtException）
+     *
+     * @param token JWT Token
+     * @return 已验签的认证载荷
+     */
+    public JwtClaims parseToken(String token) {
+        return JwtClaims.from(getClaimsFromToken(token));
+    }
+
     /**
      * 从Token中提取用户ID
      *
@@ -113,11 +142,7 @@ public class JwtTokenProvider {
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -130,30 +155,46 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token, UserDO user) {
         try {
-            Long tokenUserId = getUserIdFromToken(token);
-            Long tokenCreatedAt = getCreatedAtFromToken(token);
-
-            // 校验 id 一致
-            if (!tokenUserId.equals(user.getId())) {
-                return false;
-            }
-
-            // 校验 createdAt 一致（防止伪造 token 中的 id）
-            long dbCreatedAt = user.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-            if (!tokenCreatedAt.equals(dbCreatedAt)) {
-                return false;
-            }
-
-            // 校验未过期
-            return !isTokenExpired(token);
+            return validateToken(parseToken(token), user);
         } catch (Exception e) {
             log.error("JWT token validation error: {}", e.getMessage());
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    /**
+     * 使用已解析的载荷验证Token（不再重复验签）
+     * 性能优先策略：仅校验 id + createdAt，不比对可变字段
+     *
+     * @param claims 已验签的认证载荷
+     * @param user 数据库中查出的用户实体
+     * @return true-有效，false-无效
+     */
+    public boolean validateToken(JwtClaims claims, UserDO user) {
+        long dbCreatedAt = user.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return validateToken(claims, user.getId(), dbCreatedAt);
+    }
+
+    /**
+     * 使用已解析的载荷验证Token（不再重复验签）
+     *
+     * @param claims 已验签的认证载荷
+     * @param userId 用户ID
+     * @param createdAtMillis 用户创建时间（毫秒）
+     * @return true-有效，false-无效
+     */
+    public boolean validateToken(JwtClaims claims, Long userId, long createdAtMillis) {
+        // 校验 id 一致
+        if (!claims.getUserId().equals(userId)) {
+            return false;
+        }
+
+        // 校验 createdAt 一致（防止伪造 token 中的 id）
+        if (claims.getCreatedAt() == null || claims.getCreatedAt() != createdAtMillis) {
+            return false;
+        }
+
+        // 校验未过期
+        return !claims.isExpired(System.currentTimeMillis());
     }
 }
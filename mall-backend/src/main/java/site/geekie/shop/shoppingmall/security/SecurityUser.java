@@ -5,8 +5,12 @@ import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import site.geekie.shop.shoppingmall.dto.UserAuthCache;
 import site.geekie.shop.shoppingmall.entity.UserDO;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -27,6 +31,27 @@ public class SecurityUser implements UserDetails {
     // 用户实体对象，包含用户的所有业务信息
     private UserDO user;
 
+    /**
+     * 由认证缓存构建（JWT 认证链路使用）
+     * 缓存中不含 password，构建出的 UserDO 的 password 为 null
+     *
+     * @param cache 用户认证缓存
+     * @return SecurityUser
+     */
+    public static SecurityUser fromAuthCache(UserAuthCache cache) {
+        UserDO user = new UserDO();
+        user.setId(cache.getId());
+        user.setUsername(cache.getUsername());
+        user.setEmail(cache.getEmail());
+        user.setRole(cache.getRole());
+        user.setStatus(cache.getStatus());
+        if (cache.getCreatedAtMillis() != null) {
+            user.setCreatedAt(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(cache.getCreatedAtMillis()), ZoneId.systemDefault()));
+        }
+        return new SecurityUser(user);
+    }
+
     /**
      * 获取用户的权限列表
      * 将用户角色转换为Spring Security的GrantedAuthority格式
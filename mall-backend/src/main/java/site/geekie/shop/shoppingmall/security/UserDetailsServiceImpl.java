@@ -2,6 +2,7 @@ package site.geekie.shop.shoppingmall.security;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,11 +17,12 @@ import site.geekie.shop.shoppingmall.mapper.UserMapper;
  *   - 根据用户名从数据库查询用户信息
  *   - 将用户实体转换为Spring Security所需的UserDetails对象
  *   - 处理用户不存在的异常情况
+ *   - 登录成功后若密码哈希的工作因子低于当前配置，由 Spring Security 回调 updatePassword 透明升级
  *
  */
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     // 用户数据访问对象，用于从数据库查询用户信息
     private final UserMapper userMapper;
@@ -41,4 +43,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         }
         return new SecurityUser(user);
     }
+
+    /**
+     * 升级密码哈希
+     * 仅替换哈希值，明文密码不变，无需使已签发的 token 失效
+     *
+     * @param user        已认证的用户详情
+     * @param newPassword 按当前工作因子重新计算的哈希
+     * @return 更新后的用户详情
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDO userDO = ((SecurityUser) user).getUser();
+        userMapper.updatePassword(userDO.getId(), newPassword);
+        userDO.setPassword(newPassword);
+        return user;
+    }
 }
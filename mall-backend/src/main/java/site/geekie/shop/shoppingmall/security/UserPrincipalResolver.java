@@ -0,0 +1,124 @@
+package site.geekie.shop.shoppingmall.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.dto.UserAuthCache;
+import site.geekie.shop.shoppingmall.entity.UserDO;
+import site.geekie.shop.shoppingmall.mapper.UserMapper;
+import site.geekie.shop.shoppingmall.util.AuthStateRepository;
+import site.geekie.shop.shoppingmall.util.UserAuthCacheService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * JWT 认证链路的用户信息分级解析器
+ *
+ * 查询顺序：
+ *   - L1：进程内 Caffeine 缓存（容量上限 + 写入后 TTL）
+ *   - L2：Redis 认证缓存 auth:user:{userId}，经 AuthStateRepository 与黑名单、强制登出标记一次往返读取
+ *   - L3：MySQL 回源（findAuthById，不读取 password），并回填 L2；
+ *     L2 读取超时/异常时不回填，避免 Redis 已经变慢时再走全局 3000ms 超时的写入
+ *
+ * 失效策略：
+ *   UserAuthCacheService.evictUser 广播 auth:user:evict，所有节点（含本节点）收到后清除 L1。
+ *   Redis 不可用时广播可能丢失，L1 最长在 TTL 后自然过期。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalResolver {
+
+    private final UserAuthCacheService userAuthCacheService;
+    private final AuthStateRepository authStateRepository;
+    private final UserMapper userMapper;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${auth.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // L1 本地缓存：userId -> 认证信息
+    private Cache<Long, UserAuthCache> localCache;
+
+    /**
+     * 初始化本地缓存并订阅失效广播
+     */
+    @PostConstruct
+    public void init() {
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onEvictMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserAuthCacheService.EVICT_CHANNEL)
+        );
+    }
+
+    /**
+     * 解析用户认证信息
+     *
+     * L1 未命中时，一次往返读取 Redis 认证状态，黑名单 / 强制登出结果同时回写本地吊销副本。
+     *
+     * @param userId    用户ID（来自已验签的 token）
+     * @param tokenHash token 哈希
+     * @return 认证信息；用户不存在返回 null
+     */
+    public UserAuthCache resolve(Long userId, String tokenHash) {
+        // 1. L1 本地缓存
+        UserAuthCache cached = localCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 2. L2 Redis 认证状态（超时/异常时 available 为 false，降级查 DB）
+        AuthStateRepository.AuthState state = authStateRepository.load(userId, tokenHash);
+        cached = state.user();
+
+        // 3. L3 数据库回源（不含 password）；Redis 可用时回填，不可用时只放入 L1
+        if (cached == null) {
+            UserDO user = userMapper.findAuthById(userId);
+            if (user == null) {
+                return null;
+            }
+            cached = state.available()
+                    ? userAuthCacheService.putUser(user)
+                    : userAuthCacheService.buildCache(user);
+        }
+
+        localCache.put(userId, cached);
+        return cached;
+    }
+
+    /**
+     * 清除本节点的一级缓存
+     *
+     * @param userId 用户ID
+     */
+    public void evictLocal(Long userId) {
+        localCache.invalidate(userId);
+    }
+
+    /**
+     * 处理失效广播消息
+     */
+    private void onEvictMessage(String body) {
+        try {
+            evictLocal(Long.parseLong(body));
+            log.debug("收到用户认证缓存失效广播 - userId: {}", body);
+        } catch (NumberFormatException e) {
+            log.warn("无效的用户认证缓存失效消息: {}", body);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package site.geekie.shop.shoppingmall.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签 token 缓存
+ *
+ * 前端在一次会话中反复携带同一个 token，命中缓存时跳过 HMAC 验签和载荷解码。
+ *
+ * 设计：
+ *   - key：TokenBlacklistService#hashToken 计算的 16 位 hex 哈希
+ *   - value：原始 token + 已验签的 JwtClaims；命中时比对原始 token，哈希碰撞不会绕过验签
+ *   - 容量上限 + 按条目过期：过期时间 = token 自身 exp，命中时再校验一次 exp，条目寿命不超过 token
+ *
+ * 失效：TokenRevocationReplica 应用黑名单 / 强制登出事件时同步清除（本节点写入与其他节点广播均覆盖）。
+ * 黑名单与强制登出的拦截仍由认证过滤器每次检查，本缓存只省去验签。
+ */
+@Component
+@RequiredArgsConstructor
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider tokenProvider;
+
+    @Value("${auth.token-cache.max-size:50000}")
+    private long maxSize;
+
+    // tokenHash -> 已验签条目
+    private Cache<String, VerifiedToken> cache;
+
+    private record VerifiedToken(String token, JwtClaims claims) {}
+
+    /**
+     * 初始化缓存，条目按 token 剩余有效期过期
+     */
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remainingMs = value.claims().getExpiration() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 获取已验签的载荷，未命中时验签并写入缓存
+     *
+     * @param tokenHash token 哈希
+     * @param token     JWT token 字符串
+     * @return 已验签的载荷
+     * @throws io.jsonwebtoken.JwtException token 无效或已过期
+     */
+    public JwtClaims verify(String tokenHash, String token) {
+        VerifiedToken cached = cache.getIfPresent(tokenHash);
+        if (cached != null && cached.token().equals(token)
+                && !cached.claims().isExpired(System.currentTimeMillis())) {
+            return cached.claims();
+        }
+
+        JwtClaims claims = tokenProvider.parseToken(token);
+        cache.put(tokenHash, new VerifiedToken(token, claims));
+        return claims;
+    }
+
+    /**
+     * 清除单个 token（加入黑名单时调用）
+     *
+     * @param tokenHash token 哈希
+     */
+    public void invalidate(String tokenHash) {
+        cache.invalidate(tokenHash);
+    }
+
+    /**
+     * 清除某用户的全部 token（强制登出时调用，低频操作，遍历即可）
+     *
+     * @param userId 用户ID
+     */
+    public void invalidateUser(Long userId) {
+        cache.asMap().values().removeIf(v -> userId.equals(v.claims().getUserId()));
+    }
+}
@@ -44,4 +44,13 @@ public interface AuthService {
      * @param token 当前请求携带的 JWT token（不含 "Bearer " 前缀）
      */
     void logout(String token);
+
+    /**
+     * 检查用户名是否可用（注册表单实时校验）
+     * 布隆过滤器判定一定不存在时直接返回，否则查库确认
+     *
+     * @param username 用户名
+     * @return true-可用
+     */
+    boolean isUsernameAvailable(String username);
 }
@@ -19,6 +19,14 @@ public interface CategoryService {
      */
     List<CategoryVO> getAllCategories();
 
+    /**
+     * 获取所有分类列表的 JSON（与 getAllCategories 序列化结果一致）
+     * 直接返回缓存中的原始字节，不经过反序列化，供接口层原样写入响应
+     *
+     * @return 分类列表 JSON（UTF-8）
+     */
+    byte[] getAllCategoriesJson();
+
     /**
      * 获取分类树形结构
      * 返回所有分类的树形层级结构
@@ -27,6 +35,14 @@ public interface CategoryService {
      */
     List<CategoryVO> getCategoryTree();
 
+    /**
+     * 获取分类树的 JSON（与 getCategoryTree 序列化结果一致）
+     * 直接返回缓存中的原始字节，不经过反序列化，供接口层原样写入响应
+     *
+     * @return 分类树 JSON（UTF-8）
+     */
+    byte[] getCategoryTreeJson();
+
     /**
      * 根据父分类ID获取子分类列表
      *
@@ -82,6 +82,15 @@ public interface OrderService {
      */
     PageResult<OrderVO> getAllOrders(int page, int size, String sortBy, String sortDir);
 
+    /**
+     * 游标分页获取所有订单（管理员）
+     * 不统计总数，按 (排序列, id) 定位下一页；支持的排序字段：createdAt / orderNo
+     *
+     * @param cursor 上一页返回的 nextCursor，第一页传空字符串
+     * @return 订单列表及下一页游标
+     */
+    PageResult<OrderVO> getAllOrdersByCursor(String cursor, int size, String sortBy, String sortDir);
+
     /**
      * 根据状态获取所有订单（管理员）
      *
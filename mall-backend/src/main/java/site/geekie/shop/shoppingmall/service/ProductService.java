@@ -20,6 +20,16 @@ public interface ProductService {
      */
     PageResult<ProductVO> getAllProducts(int page, int size, String keyword, Long categoryId, Integer status, String sortBy, String sortDir);
 
+    /**
+     * 游标分页获取商品列表
+     * 不统计总数，按 (排序列, id) 定位下一页，翻页深度不影响查询耗时
+     * 支持的排序字段：id / name / price / stock / createdAt / sales，带 keyword 时另支持 relevance
+     *
+     * @param cursor 上一页返回的 nextCursor，第一页传空字符串
+     * @return 商品列表及下一页游标
+     */
+    PageResult<ProductVO> getAllProductsByCursor(String cursor, int size, String keyword, Long categoryId, Integer status, String sortBy, String sortDir);
+
     /**
      * 根据分类ID获取商品列表
      *
@@ -37,6 +47,15 @@ public interface ProductService {
      */
     PageResult<ProductVO> searchProducts(String keyword, int page, int size);
 
+    /**
+     * 游标分页搜索商品（排序同 searchProducts）
+     *
+     * @param keyword 搜索关键词
+     * @param cursor 上一页返回的 nextCursor，第一页传空字符串
+     * @return 商品列表及下一页游标
+     */
+    PageResult<ProductVO> searchProductsByCursor(String keyword, String cursor, int size);
+
     /**
      * 根据ID获取商品详情
      *
@@ -47,6 +66,15 @@ public interface ProductService {
      */
     ProductVO getProductById(Long id);
 
+    /**
+     * 根据ID列表批量获取商品
+     * 经两级缓存批量读取，未命中的商品一次查询回源
+     *
+     * @param ids 商品ID列表
+     * @return 商品列表（按传入顺序，不存在的商品跳过）
+     */
+    List<ProductVO> getProductsByIds(List<Long> ids);
+
     /**
      * 新增商品
      * 验证分类存在性
@@ -2,6 +2,7 @@ package site.geekie.shop.shoppingmall.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,22 +19,23 @@ import site.geekie.shop.shoppingmall.dto.RegisterDTO;
 import site.geekie.shop.shoppingmall.entity.UserDO;
 import site.geekie.shop.shoppingmall.exception.BusinessException;
 import site.geekie.shop.shoppingmall.mapper.UserMapper;
+import site.geekie.shop.shoppingmall.security.JwtClaims;
 import site.geekie.shop.shoppingmall.security.JwtTokenProvider;
 import site.geekie.shop.shoppingmall.security.SecurityUser;
 import site.geekie.shop.shoppingmall.service.AuthService;
 import site.geekie.shop.shoppingmall.util.TokenBlacklistService;
 import site.geekie.shop.shoppingmall.util.UserAuthCacheService;
+import site.geekie.shop.shoppingmall.util.UserRegistryBloomFilter;
+import site.geekie.shop.shoppingmall.util.UserRegistryBloomFilter.Field;
 import site.geekie.shop.shoppingmall.vo.LoginVO;
 import site.geekie.shop.shoppingmall.vo.UserVO;
 
-import java.util.Date;
-
 /**
  * 认证服务实现类
  * 实现用户注册、登录、登出的业务逻辑
  *
  * 核心功能：
- *   - 用户注册：验证唯一性约束，加密密码，创建用户账户
+ *   - 用户注册：布隆过滤器预检 + 查库验证唯一性，加密密码，创建用户账户
  *   - 用户登录：Spring Security认证，生成JWT令牌，回填认证缓存
  *   - 用户登出：token 加黑名单，清除认证缓存
  */
@@ -49,10 +51,12 @@ public class AuthServiceImpl implements AuthService {
     private final UserConverter userConverter;
     private final TokenBlacklistService tokenBlacklistService;
     private final UserAuthCacheService userAuthCacheService;
+    private final UserRegistryBloomFilter userRegistryBloomFilter;
 
     /**
      * 用户注册
      * 验证用户信息唯一性后创建新用户账户
+     * 布隆过滤器判定一定不存在的字段跳过查库，数据库唯一约束兜底并发/漏判
      *
      * @param request 注册请求
      * @throws BusinessException 当用户名、邮箱或手机号已存在时抛出
@@ -61,15 +65,19 @@ public class AuthServiceImpl implements AuthService {
     @Transactional
     @LogOperation(value = "用户注册", module = "认证")
     public void register(RegisterDTO request) {
-        if (userMapper.findByUsername(request.getUsername()) != null) {
+        if (userRegistryBloomFilter.mightExist(Field.USERNAME, request.getUsername())
+                && userMapper.findByUsername(request.getUsername()) != null) {
             throw new BusinessException(ResultCode.USERNAME_ALREADY_EXISTS);
         }
 
-        if (userMapper.findByEmail(request.getEmail()) != null) {
+        if (userRegistryBloomFilter.mightExist(Field.EMAIL, request.getEmail())
+                && userMapper.findByEmail(request.getEmail()) != null) {
             throw new BusinessException(ResultCode.EMAIL_ALREADY_EXISTS);
         }
 
-        if (request.getPhone() != null && userMapper.findByPhone(request.getPhone()) != null) {
+        if (request.getPhone() != null
+                && userRegistryBloomFilter.mightExist(Field.PHONE, request.getPhone())
+                && userMapper.findByPhone(request.getPhone()) != null) {
             throw new BusinessException(ResultCode.PHONE_ALREADY_EXISTS);
         }
 
@@ -81,7 +89,35 @@ public class AuthServiceImpl implements AuthService {
         user.setRole("USER");
         user.setStatus(1);
 
-        userMapper.insert(user);
+        try {
+            userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(duplicateKeyCode(e));
+        }
+
+        userRegistryBloomFilter.add(user);
+    }
+
+    @Override
+    public boolean isUsernameAvailable(String username) {
+        if (!userRegistryBloomFilter.mightExist(Field.USERNAME, username)) {
+            return true;
+        }
+        return userMapper.findByUsername(username) == null;
+    }
+
+    /**
+     * 根据违反的唯一索引确定错误码
+     */
+    private ResultCode duplicateKeyCode(DuplicateKeyException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains("uk_email")) {
+            return ResultCode.EMAIL_ALREADY_EXISTS;
+        }
+        if (message.contains("uk_phone")) {
+            return ResultCode.PHONE_ALREADY_EXISTS;
+        }
+        return ResultCode.USERNAME_ALREADY_EXISTS;
     }
 
     /**
@@ -139,6 +175,11 @@ public class AuthServiceImpl implements AuthService {
                     request.getUsername(), exceptionType, e.getMessage(), e.toString());
             throw new BusinessException(ResultCode.INVALID_CREDENTIALS);
 
+        } catch (BusinessException e) {
+            // 密码哈希队列已满等业务异常原样抛出
+            log.warn("【登录拒绝】用户名: {}，原因: {}", request.getUsername(), e.getMessage());
+            throw e;
+
         } catch (Exception e) {
             log.error("【系统错误】用户登录异常，用户名: {}，异常类型: {}，详细信息: {}",
                     request.getUsername(), e.getClass().getSimpleName(), e.getMessage(), e);
@@ -158,11 +199,11 @@ public class AuthServiceImpl implements AuthService {
             return;
         }
         try {
-            Date expiresAt = tokenProvider.getExpirationDateFromToken(token);
-            Long userId = tokenProvider.getUserIdFromToken(token);
+            JwtClaims claims = tokenProvider.parseToken(token);
+            Long userId = claims.getUserId();
 
             // 将 token 加入黑名单，TTL = 剩余有效期
-            tokenBlacklistService.blacklist(token, expiresAt);
+            tokenBlacklistService.blacklist(token, claims.getExpirationDate());
             // 清除该用户的认证缓存
             userAuthCacheService.evictUser(userId);
 
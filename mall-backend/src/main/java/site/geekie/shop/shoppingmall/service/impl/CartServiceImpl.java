@@ -14,9 +14,11 @@ import site.geekie.shop.shoppingmall.exception.BusinessException;
 import site.geekie.shop.shoppingmall.mapper.CartItemMapper;
 import site.geekie.shop.shoppingmall.mapper.ProductMapper;
 import site.geekie.shop.shoppingmall.service.CartService;
+import site.geekie.shop.shoppingmall.util.ProductCacheService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 购物车服务实现类
@@ -28,6 +30,7 @@ public class CartServiceImpl implements CartService {
     private final CartItemMapper cartItemMapper;
     private final ProductMapper productMapper;
     private final CartItemConverter cartItemConverter;
+    private final ProductCacheService productCacheService;
 
 
     /**
@@ -46,7 +49,7 @@ public class CartServiceImpl implements CartService {
     @Override
     public List<CartItemVO> getCartItems(Long userId) {
         List<CartItemDO> cartItems = cartItemMapper.findByUserId(userId);
-        return cartItemConverter.toVOList(cartItems, productMapper);
+        return cartItemConverter.toVOList(cartItems, productCacheService);
     }
 
     @Override
@@ -184,9 +187,12 @@ public class CartServiceImpl implements CartService {
     public BigDecimal getCartTotal(Long userId) {
         List<CartItemDO> checkedItems = cartItemMapper.findCheckedByUserId(userId);
 
+        Map<Long, ProductDO> productMap = productCacheService.getProducts(
+                checkedItems.stream().map(CartItemDO::getProductId).toList());
+
         BigDecimal total = BigDecimal.ZERO;
         for (CartItemDO item : checkedItems) {
-            ProductDO product = productMapper.findById(item.getProductId());
+            ProductDO product = productMap.get(item.getProductId());
             if (product != null) {
                 BigDecimal itemTotal = product.getPrice().multiply(new BigDecimal(item.getQuantity()));
                 total = total.add(itemTotal);
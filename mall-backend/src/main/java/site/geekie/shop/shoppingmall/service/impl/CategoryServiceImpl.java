@@ -1,12 +1,17 @@
 package site.geekie.shop.shoppingmall.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import site.geekie.shop.shoppingmall.common.ResultCode;
@@ -18,9 +23,15 @@ import site.geekie.shop.shoppingmall.exception.BusinessException;
 import site.geekie.shop.shoppingmall.mapper.CategoryMapper;
 import site.geekie.shop.shoppingmall.mapper.ProductMapper;
 import site.geekie.shop.shoppingmall.service.CategoryService;
+import site.geekie.shop.shoppingmall.util.CategorySnapshot;
+import site.geekie.shop.shoppingmall.util.CategorySnapshotHolder;
+import site.geekie.shop.shoppingmall.util.ProductCacheService;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -40,6 +51,8 @@ public class CategoryServiceImpl implements CategoryService {
     private final ProductMapper productMapper;
     private final CategoryConverter categoryConverter;
     private final StringRedisTemplate stringRedisTemplate;
+    private final ProductCacheService productCacheService;
+    private final CategorySnapshotHolder categorySnapshotHolder;
 
     /**
      * 支持 Java 8 时间类型（LocalDateTime）的 ObjectMapper。
@@ -54,6 +67,15 @@ public class CategoryServiceImpl implements CategoryService {
         return mapper;
     }
 
+    /**
+     * 分类快照更新后（本节点快照已是最新）清除分类缓存和商品组装结果中的分类名称，
+     * 每个节点各自执行一次，避免快照更新前按旧数据回填缓存。
+     */
+    @PostConstruct
+    public void init() {
+        categorySnapshotHolder.addListener(this::onSnapshotChanged);
+    }
+
     @Override
     public List<CategoryVO> getAllCategories() {
         // 1. 尝试读取缓存
@@ -66,24 +88,21 @@ public class CategoryServiceImpl implements CategoryService {
             log.warn("读取分类全量缓存失败，降级查询数据库: {}", e.getMessage());
         }
 
-        // 2. 缓存未命中，查询数据库
-        List<CategoryDO> categories = categoryMapper.findAll();
-        List<CategoryVO> result = categoryConverter.toVOList(categories);
-
-        // 3. 填充每个分类的商品数量
-        for (CategoryVO vo : result) {
-            vo.setProductCount(productMapper.countByCategoryId(vo.getId()));
-        }
+        // 2. 缓存未命中，查询数据库并写入缓存
+        List<CategoryVO> result = loadAllCategories();
+        writeCache(CACHE_ALL_KEY, toJson(result));
+        return result;
+    }
 
-        // 4. 写入缓存
-        try {
-            String json = objectMapper.writeValueAsString(result);
-            stringRedisTemplate.opsForValue().set(CACHE_ALL_KEY, json, CACHE_TTL_HOURS, TimeUnit.HOURS);
-        } catch (Exception e) {
-            log.warn("写入分类全量缓存失败: {}", e.getMessage());
+    @Override
+    public byte[] getAllCategoriesJson() {
+        byte[] cached = readCache(CACHE_ALL_KEY);
+        if (cached != null) {
+            return cached;
         }
-
-        return result;
+        byte[] json = toJson(loadAllCategories());
+        writeCache(CACHE_ALL_KEY, json);
+        return json;
     }
 
     @Override
@@ -98,31 +117,32 @@ public class CategoryServiceImpl implements CategoryService {
             log.warn("读取分类树缓存失败，降级查询数据库: {}", e.getMessage());
         }
 
-        // 2. 缓存未命中，查询数据库并构建树
-        List<CategoryDO> allCategories = categoryMapper.findAll();
-        List<CategoryVO> allResponses = categoryConverter.toVOList(allCategories);
-        List<CategoryVO> tree = buildTree(allResponses, 0L);
+        // 2. 缓存未命中，查询数据库构建树并写入缓存
+        List<CategoryVO> tree = loadCategoryTree();
+        writeCache(CACHE_TREE_KEY, toJson(tree));
+        return tree;
+    }
 
-        // 3. 写入缓存
-        try {
-            String json = objectMapper.writeValueAsString(tree);
-            stringRedisTemplate.opsForValue().set(CACHE_TREE_KEY, json, CACHE_TTL_HOURS, TimeUnit.HOURS);
-        } catch (Exception e) {
-            log.warn("写入分类树缓存失败: {}", e.getMessage());
+    @Override
+    public byte[] getCategoryTreeJson() {
+        byte[] cached = readCache(CACHE_TREE_KEY);
+        if (cached != null) {
+            return cached;
         }
-
-        return tree;
+        byte[] json = toJson(loadCategoryTree());
+        writeCache(CACHE_TREE_KEY, json);
+        return json;
     }
 
     @Override
     public List<CategoryVO> getCategoriesByParentId(Long parentId) {
-        List<CategoryDO> categories = categoryMapper.findByParentId(parentId);
+        List<CategoryDO> categories = categorySnapshotHolder.current().children(parentId);
         return categoryConverter.toVOList(categories);
     }
 
     @Override
     public CategoryVO getCategoryById(Long id) {
-        CategoryDO category = categoryMapper.findById(id);
+        CategoryDO category = categorySnapshotHolder.current().get(id);
         if (category == null) {
             throw new BusinessException(ResultCode.CATEGORY_NOT_FOUND);
         }
@@ -223,40 +243,88 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     /**
-     * 清除分类相关的全部缓存 key。
-     * Redis 异常不影响业务流程。
+     * 分类已变更：事务提交后刷新分类快照（本节点立即刷新，其他节点经广播刷新），
+     * 快照更新后由 onSnapshotChanged 清除派生缓存。
      */
     private void evictCategoryCache() {
+        categorySnapshotHolder.onCategoryChanged();
+    }
+
+    /**
+     * 清除分类缓存 key，并清除名称变化或已删除分类下商品的组装结果缓存（其中缓存了分类名称）。
+     * Redis 异常不影响业务流程。
+     */
+    private void onSnapshotChanged(CategorySnapshot previous, CategorySnapshot current) {
         try {
-            stringRedisTemplate.delete(CACHE_TREE_KEY);
-            stringRedisTemplate.delete(CACHE_ALL_KEY);
+            stringRedisTemplate.delete(List.of(CACHE_TREE_KEY, CACHE_ALL_KEY));
         } catch (Exception e) {
             log.warn("清除分类缓存失败: {}", e.getMessage());
         }
+        for (CategoryDO category : previous.all()) {
+            if (!Objects.equals(category.getName(), current.nameOf(category.getId()))) {
+                try {
+                    productCacheService.evictCategory(category.getId());
+                } catch (Exception e) {
+                    log.warn("清除分类下商品缓存失败 - categoryId: {}，原因: {}", category.getId(), e.getMessage());
+                }
+            }
+        }
     }
 
     /**
-     * 构建分类树形结构
-     *
-     * @param allCategories 所有分类列表
-     * @param parentId 父分类ID
-     * @return 树形结构的分类列表
+     * 查询全部分类并填充每个分类的商品数量（一次 GROUP BY 统计全部分类）
      */
-    private List<CategoryVO> buildTree(List<CategoryVO> allCategories, Long parentId) {
-        List<CategoryVO> tree = new ArrayList<>();
-
-        for (CategoryVO category : allCategories) {
-            if (category.getParentId().equals(parentId)) {
-                // 递归查找子分类
-                List<CategoryVO> children = buildTree(allCategories, category.getId());
-                if (!children.isEmpty()) {
-                    category.setChildren(children);
-                }
-                tree.add(category);
-            }
+    private List<CategoryVO> loadAllCategories() {
+        List<CategoryDO> categories = categorySnapshotHolder.current().all();
+        List<CategoryVO> result = categoryConverter.toVOList(categories);
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Map<String, Object> row : productMapper.countGroupByCategory()) {
+            counts.put(((Number) row.get("categoryId")).longValue(), ((Number) row.get("productCount")).intValue());
+        }
+        for (CategoryVO vo : result) {
+            vo.setProductCount(counts.getOrDefault(vo.getId(), 0));
         }
+        return result;
+    }
 
-        return tree;
+    /**
+     * 查询全部分类并构建树
+     */
+    private List<CategoryVO> loadCategoryTree() {
+        List<CategoryDO> allCategories = categorySnapshotHolder.current().all();
+        List<CategoryVO> allResponses = categoryConverter.toVOList(allCategories);
+        return categoryConverter.buildTree(allResponses, 0L);
+    }
+
+    private byte[] toJson(List<CategoryVO> categories) {
+        try {
+            return objectMapper.writeValueAsBytes(categories);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化分类列表失败", e);
+        }
+    }
+
+    /**
+     * 按原始字节读取分类缓存（不经过 String 解码），Redis 异常时返回 null（降级查询数据库）
+     */
+    private byte[] readCache(String key) {
+        try {
+            return stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            log.warn("读取分类缓存失败，降级查询数据库 - key: {}，原因: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(String key, byte[] json) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.stringCommands().set(
+                    key.getBytes(StandardCharsets.UTF_8), json,
+                    Expiration.from(CACHE_TTL_HOURS, TimeUnit.HOURS), RedisStringCommands.SetOption.upsert()));
+        } catch (Exception e) {
+            log.warn("写入分类缓存失败 - key: {}，原因: {}", key, e.getMessage());
+        }
     }
 
 }
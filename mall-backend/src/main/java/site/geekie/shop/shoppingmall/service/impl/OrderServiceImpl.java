@@ -1,7 +1,6 @@
 package site.geekie.shop.shoppingmall.service.impl;
 
 import com.github.pagehelper.PageHelper;
-import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,10 +24,13 @@ import site.geekie.shop.shoppingmall.mq.producer.OrderMessageProducer;
 import site.geekie.shop.shoppingmall.service.OrderService;
 import site.geekie.shop.shoppingmall.service.PaymentService;
 import site.geekie.shop.shoppingmall.util.OrderNoGenerator;
+import site.geekie.shop.shoppingmall.util.PageCountCache;
+import site.geekie.shop.shoppingmall.util.PageCursor;
 import site.geekie.shop.shoppingmall.util.RedisDistributedLock;
 import site.geekie.shop.shoppingmall.util.StockRedisService;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +52,12 @@ public class OrderServiceImpl implements OrderService {
             "paymentTime", "ord.payment_time"
     );
 
+    // 游标分页支持的排序字段（排序列非空，排序值相同时按 id 定序；payment_time 可为空，不支持）
+    private static final Map<String, PageCursor.Column<OrderDO>> CURSOR_COLUMNS = Map.of(
+            "createdAt", new PageCursor.Column<>("ord.created_at", OrderDO::getCreatedAt, LocalDateTime::parse),
+            "orderNo", new PageCursor.Column<>("ord.order_no", OrderDO::getOrderNo, v -> v)
+    );
+
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
     private final CartItemMapper cartItemMapper;
@@ -61,6 +69,7 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMessageProducer orderMessageProducer;
     private final StockRedisService stockRedisService;
     private final RedisDistributedLock redisDistributedLock;
+    private final PageCountCache pageCountCache;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -119,8 +128,14 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
         List<OrderItemDO> orderItems = new ArrayList<>();
 
+        // 一次查询取回全部商品（直接读库：下单需要最新的价格、状态和库存，不使用缓存）
+        Map<Long, ProductDO> productMap = productMapper.findByIds(
+                checkedItems.stream().map(CartItemDO::getProductId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(ProductDO::getId, p -> p));
+
         for (CartItemDO cartItem : checkedItems) {
-            ProductDO product = productMapper.findById(cartItem.getProductId());
+            ProductDO product = productMap.get(cartItem.getProductId());
             if (product == null) {
                 throw new BusinessException(ResultCode.PRODUCT_NOT_FOUND);
             }
@@ -362,11 +377,37 @@ public class OrderServiceImpl implements OrderService {
     public PageResult<OrderVO> getAllOrders(int page, int size, String sortBy, String sortDir) {
         String sortColumn = SORT_COLUMN_WHITELIST.getOrDefault(sortBy, "ord.created_at");
         String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
-        PageHelper.startPage(page, size);
+        long total = pageCountCache.count(PageCountCache.ORDER, "",
+                () -> PageHelper.count(() -> orderMapper.findAll(sortColumn, dir)));
+        PageHelper.startPage(PageCountCache.reasonablePage(page, size, total), size, false);
         List<OrderDO> orders = orderMapper.findAll(sortColumn, dir);
-        PageInfo<OrderDO> pageInfo = new PageInfo<>(orders);
         List<OrderVO> list = orderConverter.toVOList(orders);
-        return new PageResult<>(list, pageInfo.getTotal(), page, size);
+        return new PageResult<>(list, total, page, size);
+    }
+
+    @Override
+    public PageResult<OrderVO> getAllOrdersByCursor(String cursor, int size, String sortBy, String sortDir) {
+        String sortKey = sortBy == null || sortBy.isBlank() ? "createdAt" : sortBy;
+        PageCursor.Column<OrderDO> column = CURSOR_COLUMNS.get(sortKey);
+        if (column == null) {
+            throw new BusinessException(ResultCode.INVALID_PARAMETER, "游标分页不支持该排序字段: " + sortKey);
+        }
+        String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
+        int limit = Math.max(size, 1);
+        PageCursor after = PageCursor.decode(cursor, sortKey, dir);
+        // 多取一行判断是否还有下一页
+        List<OrderDO> orders = orderMapper.findAllAfter(column.sql(), dir, PageCursor.seekOperator(dir),
+                after == null ? null : after.typedValue(column),
+                after == null ? null : after.id(),
+                limit + 1);
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            OrderDO last = orders.get(limit - 1);
+            nextCursor = PageCursor.after(last, last.getId(), sortKey, dir, column).encode();
+        }
+        return new PageResult<>(orderConverter.toVOList(orders), limit, nextCursor);
     }
 
     @Override
@@ -380,11 +421,12 @@ public class OrderServiceImpl implements OrderService {
 
         String sortColumn = SORT_COLUMN_WHITELIST.getOrDefault(sortBy, "ord.created_at");
         String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
-        PageHelper.startPage(page, size);
+        long total = pageCountCache.count(PageCountCache.ORDER, "status=" + status,
+                () -> PageHelper.count(() -> orderMapper.findAllByStatus(status, sortColumn, dir)));
+        PageHelper.startPage(PageCountCache.reasonablePage(page, size, total), size, false);
         List<OrderDO> orders = orderMapper.findAllByStatus(status, sortColumn, dir);
-        PageInfo<OrderDO> pageInfo = new PageInfo<>(orders);
         List<OrderVO> list = orderConverter.toVOList(orders);
-        return new PageResult<>(list, pageInfo.getTotal(), page, size);
+        return new PageResult<>(list, total, page, size);
     }
 
     @Override
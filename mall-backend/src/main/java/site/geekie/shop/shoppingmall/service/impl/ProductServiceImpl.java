@@ -1,9 +1,10 @@
 package site.geekie.shop.shoppingmall.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.pagehelper.PageHelper;
-import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import site.geekie.shop.shoppingmall.common.PageResult;
@@ -12,16 +13,28 @@ import site.geekie.shop.shoppingmall.converter.ProductConverter;
 import site.geekie.shop.shoppingmall.dto.ProductDTO;
 import site.geekie.shop.shoppingmall.entity.CategoryDO;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
 import site.geekie.shop.shoppingmall.vo.ProductVO;
 import site.geekie.shop.shoppingmall.exception.BusinessException;
 import site.geekie.shop.shoppingmall.mapper.CategoryMapper;
 import site.geekie.shop.shoppingmall.mapper.ProductMapper;
 import site.geekie.shop.shoppingmall.service.ProductService;
+import site.geekie.shop.shoppingmall.util.CategorySnapshotHolder;
+import site.geekie.shop.shoppingmall.util.PageCountCache;
+import site.geekie.shop.shoppingmall.util.PageCursor;
 import site.geekie.shop.shoppingmall.util.ProductCacheService;
+import site.geekie.shop.shoppingmall.util.ProductListingCache;
+import site.geekie.shop.shoppingmall.util.ProductSearchIndex;
 import site.geekie.shop.shoppingmall.util.StockRedisService;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * 商品服务实现类
@@ -43,69 +56,230 @@ public class ProductServiceImpl implements ProductService {
             "sales", "prod.sales_count"
     );
 
+    // 游标分页支持的排序字段（排序列非空，排序值相同时按 id 定序）
+    private static final Map<String, PageCursor.Column<ProductSummaryDO>> CURSOR_COLUMNS = Map.of(
+            "id", new PageCursor.Column<>("prod.id", ProductSummaryDO::getId, Long::valueOf),
+            "name", new PageCursor.Column<>("prod.name", ProductSummaryDO::getName, v -> v),
+            "price", new PageCursor.Column<>("prod.price", ProductSummaryDO::getPrice, BigDecimal::new),
+            "stock", new PageCursor.Column<>("prod.stock", ProductSummaryDO::getStock, Integer::valueOf),
+            "createdAt", new PageCursor.Column<>("prod.created_at", ProductSummaryDO::getCreatedAt, LocalDateTime::parse),
+            "sales", new PageCursor.Column<>("prod.sales_count", ProductSummaryDO::getSalesCount, Integer::valueOf)
+    );
+
+    // 按相关度排序的游标：结果由全文检索索引给出，游标中记录偏移量
+    private static final String RELEVANCE = "relevance";
+
+    // 列表页结果缓存的排序（前台默认排序：销量、最新）
+    private static final Set<String> CACHEABLE_SORTS = Set.of("sales", "createdAt");
+
+    private static final TypeReference<PageResult<ProductVO>> PAGE_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<ProductVO>> LIST_TYPE = new TypeReference<>() {};
+
     private final ProductMapper productMapper;
     private final CategoryMapper categoryMapper;
+    private final CategorySnapshotHolder categorySnapshotHolder;
     private final ProductConverter productConverter;
     private final StockRedisService stockRedisService;
     private final ProductCacheService productCacheService;
+    private final ProductSearchIndex productSearchIndex;
+    private final PageCountCache pageCountCache;
+    private final ProductListingCache productListingCache;
+
+    // 全文检索命中数不超过该值时以 id IN 代替 LIKE 查询，超过时仍用 LIKE
+    @Value("${product.search.max-in-ids:5000}")
+    private int maxInIds;
 
     @Override
     public PageResult<ProductVO> getAllProducts(int page, int size, String keyword, Long categoryId, Integer status, String sortBy, String sortDir) {
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        // 前台无关键词、默认排序的前几页：整页结果缓存
+        if (!hasKeyword && Integer.valueOf(1).equals(status) && CACHEABLE_SORTS.contains(sortBy)
+                && productListingCache.isCacheablePage(page)) {
+            String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
+            String params = "cat=" + Objects.toString(categoryId, "") + "|sort=" + sortBy + "|dir=" + dir
+                    + "|page=" + page + "|size=" + size;
+            return productListingCache.get(
+                    categoryId == null ? ProductListingCache.SHAPE_LIST : ProductListingCache.SHAPE_LIST_CATEGORY,
+                    params, PAGE_TYPE,
+                    () -> findAllWithFilter(null, null, categoryId, status, sortBy, sortDir, page, size));
+        }
+        if (hasKeyword && productSearchIndex.canSearch(keyword)) {
+            // 按相关度排序：完全由索引完成过滤、排序和分页
+            if ("relevance".equals(sortBy)) {
+                return searchByIndex(keyword, categoryId, status, page, size);
+            }
+            // 其他排序：索引求出命中范围，替代 LIKE 全表扫描，排序分页仍由 SQL 完成；
+            // 关键词一并传入，在命中范围内再以 LIKE 校验（只扫描 id IN 命中的行）
+            List<Long> ids = productSearchIndex.search(keyword, categoryId, status, 0, maxInIds + 1).ids();
+            if (ids.isEmpty()) {
+                return new PageResult<>(Collections.emptyList(), 0, page, size);
+            }
+            if (ids.size() <= maxInIds) {
+                return findAllWithFilter(ids, keyword, categoryId, status, sortBy, sortDir, page, size);
+            }
+        }
+        return findAllWithFilter(null, keyword, categoryId, status, sortBy, sortDir, page, size);
+    }
+
+    private PageResult<ProductVO> findAllWithFilter(List<Long> ids, String keyword, Long categoryId, Integer status,
+                                                    String sortBy, String sortDir, int page, int size) {
         String sortColumn = SORT_COLUMN_WHITELIST.getOrDefault(sortBy, "prod.id");
         String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
-        PageHelper.startPage(page, size);
-        List<ProductDO> products = productMapper.findAllWithFilter(keyword, categoryId, status, sortColumn, dir);
-        PageInfo<ProductDO> pageInfo = new PageInfo<>(products);
-        List<ProductVO> list = productConverter.toVOList(products, categoryMapper);
-        return new PageResult<>(list, pageInfo.getTotal(), page, size);
+        // 命中范围来自全文检索索引（已逐个校验包含关键词）时总数即 id 个数；否则按筛选条件读缓存的总数
+        long total = ids != null
+                ? ids.size()
+                : pageCountCache.count(PageCountCache.PRODUCT, productFilterKey(keyword, categoryId, status),
+                        () -> PageHelper.count(() -> productMapper.findAllWithFilter(null, keyword, categoryId, status, sortColumn, dir)));
+        PageHelper.startPage(PageCountCache.reasonablePage(page, size, total), size, false);
+        List<ProductSummaryDO> products = productMapper.findAllWithFilter(ids, keyword, categoryId, status, sortColumn, dir);
+        List<ProductVO> list = productConverter.toSummaryVOList(products, categorySnapshotHolder.current());
+        return new PageResult<>(list, total, page, size);
+    }
+
+    /**
+     * 商品列表筛选条件的归一化表示（总数缓存 key），关键词按 MySQL 默认排序规则忽略大小写
+     */
+    private static String productFilterKey(String keyword, Long categoryId, Integer status) {
+        String kw = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+        if (kw.isEmpty() && categoryId == null && status == null) {
+            return "";
+        }
+        return "kw=" + kw + "|cat=" + Objects.toString(categoryId, "") + "|st=" + Objects.toString(status, "");
+    }
+
+    @Override
+    public PageResult<ProductVO> getAllProductsByCursor(String cursor, int size, String keyword, Long categoryId,
+                                                        Integer status, String sortBy, String sortDir) {
+        String dir = "asc".equalsIgnoreCase(sortDir) ? "ASC" : "DESC";
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        if (hasKeyword && productSearchIndex.canSearch(keyword)) {
+            if (RELEVANCE.equals(sortBy)) {
+                return searchByIndexCursor(keyword, categoryId, status, cursor, size);
+            }
+            List<Long> ids = productSearchIndex.search(keyword, categoryId, status, 0, maxInIds + 1).ids();
+            if (ids.isEmpty()) {
+                return new PageResult<>(Collections.emptyList(), size, null);
+            }
+            if (ids.size() <= maxInIds) {
+                return findAllAfter(ids, keyword, categoryId, status, sortBy, dir, cursor, size);
+            }
+        }
+        return findAllAfter(null, keyword, categoryId, status, sortBy, dir, cursor, size);
+    }
+
+    /**
+     * 游标分页查询：多取一行判断是否还有下一页，以本页最后一行生成下一页游标
+     */
+    private PageResult<ProductVO> findAllAfter(List<Long> ids, String keyword, Long categoryId, Integer status,
+                                               String sortBy, String dir, String cursor, int size) {
+        String sortKey = sortBy == null || sortBy.isBlank() || RELEVANCE.equals(sortBy) ? "id" : sortBy;
+        PageCursor.Column<ProductSummaryDO> column = CURSOR_COLUMNS.get(sortKey);
+        if (column == null) {
+            throw new BusinessException(ResultCode.INVALID_PARAMETER, "游标分页不支持该排序字段: " + sortKey);
+        }
+        int limit = Math.max(size, 1);
+        PageCursor after = PageCursor.decode(cursor, sortKey, dir);
+        List<ProductSummaryDO> rows = productMapper.findAllAfter(ids, keyword, categoryId, status,
+                column.sql(), dir, PageCursor.seekOperator(dir),
+                after == null ? null : after.typedValue(column),
+                after == null ? null : after.id(),
+                limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            ProductSummaryDO last = rows.get(limit - 1);
+            nextCursor = PageCursor.after(last, last.getId(), sortKey, dir, column).encode();
+        }
+        return new PageResult<>(productConverter.toSummaryVOList(rows, categorySnapshotHolder.current()), limit, nextCursor);
     }
 
     @Override
     public List<ProductVO> getProductsByCategoryId(Long categoryId) {
-        List<ProductDO> products = productMapper.findByCategoryId(categoryId);
-        return productConverter.toVOList(products, categoryMapper);
+        return productListingCache.get(ProductListingCache.SHAPE_CATEGORY, "cat=" + categoryId, LIST_TYPE, () -> {
+            List<ProductSummaryDO> products = productMapper.findByCategoryId(categoryId);
+            return productConverter.toSummaryVOList(products, categorySnapshotHolder.current());
+        });
     }
 
     @Override
     public PageResult<ProductVO> searchProducts(String keyword, int page, int size) {
-        PageHelper.startPage(page, size);
-        List<ProductDO> products = productMapper.searchByKeyword(keyword);
-        PageInfo<ProductDO> pageInfo = new PageInfo<>(products);
-        List<ProductVO> list = productConverter.toVOList(products, categoryMapper);
-        return new PageResult<>(list, pageInfo.getTotal(), page, size);
+        if (productSearchIndex.canSearch(keyword)) {
+            return searchByIndex(keyword, null, 1, page, size);
+        }
+        long total = pageCountCache.count(PageCountCache.PRODUCT, "search|" + productFilterKey(keyword, null, 1),
+                () -> PageHelper.count(() -> productMapper.searchByKeyword(keyword)));
+        PageHelper.startPage(PageCountCache.reasonablePage(page, size, total), size, false);
+        List<ProductSummaryDO> products = productMapper.searchByKeyword(keyword);
+        List<ProductVO> list = productConverter.toSummaryVOList(products, categorySnapshotHolder.current());
+        return new PageResult<>(list, total, page, size);
     }
 
     @Override
-    public ProductVO getProductById(Long id) {
-        // 1. 先查缓存，Redis 异常时降级直接查 DB
-        ProductDO product = null;
-        try {
-            product = productCacheService.getProduct(id);
-        } catch (Exception e) {
-            log.warn("查询商品缓存异常，降级查 DB - productId: {}", id, e);
+    public PageResult<ProductVO> searchProductsByCursor(String keyword, String cursor, int size) {
+        if (productSearchIndex.canSearch(keyword)) {
+            return searchByIndexCursor(keyword, null, 1, cursor, size);
         }
+        return findAllAfter(null, keyword, null, 1, "createdAt", "DESC", cursor, size);
+    }
 
-        if (product == null) {
-            // 2. 缓存未命中，查 DB
-            product = productMapper.findById(id);
-            if (product == null) {
-                // 缓存空值防穿透
-                try {
-                    productCacheService.putNull(id);
-                } catch (Exception e) {
-                    log.warn("写入空值缓存异常 - productId: {}", id, e);
-                }
-                throw new BusinessException(ResultCode.PRODUCT_NOT_FOUND);
-            }
-            // 3. 写入缓存
-            try {
-                productCacheService.putProduct(product);
-            } catch (Exception e) {
-                log.warn("写入商品缓存异常 - productId: {}", id, e);
-            }
+    /**
+     * 全文检索索引分页查询，当前页商品经两级缓存批量读取（按相关度顺序返回）
+     */
+    private PageResult<ProductVO> searchByIndex(String keyword, Long categoryId, Integer status, int page, int size) {
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(
+                keyword, categoryId, status, (Math.max(page, 1) - 1) * size, size);
+        return new PageResult<>(loadInOrder(result.ids()), result.total(), page, size);
+    }
+
+    /**
+     * 全文检索索引游标分页：索引在内存中完成排序，游标记录已读取的偏移量
+     */
+    private PageResult<ProductVO> searchByIndexCursor(String keyword, Long categoryId, Integer status,
+                                                      String cursor, int size) {
+        int limit = Math.max(size, 1);
+        PageCursor after = PageCursor.decode(cursor, RELEVANCE, "DESC");
+        int offset = after == null ? 0 : (int) after.id();
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(keyword, categoryId, status, offset, limit);
+        String nextCursor = offset + limit < result.total()
+                ? new PageCursor(RELEVANCE, "DESC", "", offset + limit).encode()
+                : null;
+        return new PageResult<>(loadInOrder(result.ids()), limit, nextCursor);
+    }
+
+    private List<ProductVO> loadInOrder(List<Long> ids) {
+        Map<Long, ProductDO> productMap = productCacheService.getProducts(ids);
+        List<ProductDO> products = ids.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return productConverter.toVOList(products, categorySnapshotHolder.current());
+    }
+
+    @Override
+    public ProductVO getProductById(Long id) {
+        // 组装结果缓存 → 两级缓存 + 单飞回源 + 逻辑过期后台刷新，Redis 异常时降级直接查 DB
+        ProductVO vo = productCacheService.getProductVO(id, productMapper::findById,
+                product -> productConverter.toVOWithCategory(product, categorySnapshotHolder.current()));
+        if (vo == null) {
+            throw new BusinessException(ResultCode.PRODUCT_NOT_FOUND);
         }
+        return vo;
+    }
 
-        return productConverter.toVOWithCategory(product, categoryMapper);
+    @Override
+    public List<ProductVO> getProductsByIds(List<Long> ids) {
+        // ids=1,,2 这类参数会绑定出 null 元素，直接跳过
+        List<Long> productIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, ProductDO> productMap = productCacheService.getProducts(productIds);
+        List<ProductDO> products = productIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return productConverter.toVOList(products, categorySnapshotHolder.current());
     }
 
     @Override
@@ -130,6 +304,7 @@ public class ProductServiceImpl implements ProductService {
         product.setStatus(request.getStatus());
 
         productMapper.insert(product);
+        productSearchIndex.onProductChanged(product.getId());
         // 同步 Redis 库存
         if (Integer.valueOf(1).equals(product.getStatus())) {
             try {
@@ -139,7 +314,7 @@ public class ProductServiceImpl implements ProductService {
             }
         }
 
-        return productConverter.toVOWithCategory(product, categoryMapper);
+        return productConverter.toVOWithCategory(product, categorySnapshotHolder.current());
     }
 
     @Override
@@ -171,6 +346,7 @@ public class ProductServiceImpl implements ProductService {
         product.setStatus(request.getStatus());
 
         productMapper.updateById(product);
+        productSearchIndex.onProductChanged(id);
         // 同步 Redis 库存
         try {
             if (Integer.valueOf(1).equals(request.getStatus())) {
@@ -188,7 +364,7 @@ public class ProductServiceImpl implements ProductService {
             log.warn("清除商品缓存异常 - productId: {}", id, e);
         }
 
-        return productConverter.toVOWithCategory(product, categoryMapper);
+        return productConverter.toVOWithCategory(product, categorySnapshotHolder.current());
     }
 
     @Override
@@ -202,6 +378,7 @@ public class ProductServiceImpl implements ProductService {
 
         // 2. 删除商品
         productMapper.deleteById(id);
+        productSearchIndex.onProductChanged(id);
         // 清除 Redis 库存缓存
         try {
             stockRedisService.removeStock(id);
@@ -274,6 +451,7 @@ public class ProductServiceImpl implements ProductService {
         updateProduct.setId(id);
         updateProduct.setStatus(status);
         productMapper.updateById(updateProduct);
+        productSearchIndex.onProductChanged(id);
         // 上架时加载库存到 Redis，下架时清除
         try {
             if (status == 1) {
@@ -1,7 +1,6 @@
 package site.geekie.shop.shoppingmall.service.impl;
 
 import com.github.pagehelper.PageHelper;
-import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,8 +17,10 @@ import site.geekie.shop.shoppingmall.exception.BusinessException;
 import site.geekie.shop.shoppingmall.mapper.UserMapper;
 import site.geekie.shop.shoppingmall.security.SecurityUser;
 import site.geekie.shop.shoppingmall.service.UserService;
+import site.geekie.shop.shoppingmall.util.PageCountCache;
 import site.geekie.shop.shoppingmall.util.TokenBlacklistService;
 import site.geekie.shop.shoppingmall.util.UserAuthCacheService;
+import site.geekie.shop.shoppingmall.util.UserRegistryBloomFilter;
 import site.geekie.shop.shoppingmall.vo.UserVO;
 
 /**
@@ -41,6 +42,8 @@ public class UserServiceImpl implements UserService {
     private final UserConverter userConverter;
     private final TokenBlacklistService tokenBlacklistService;
     private final UserAuthCacheService userAuthCacheService;
+    private final UserRegistryBloomFilter userRegistryBloomFilter;
+    private final PageCountCache pageCountCache;
 
     /**
      * 获取当前登录用户信息
@@ -118,6 +121,9 @@ public class UserServiceImpl implements UserService {
         updateDO.setAvatar(dto.getAvatar());
         userMapper.updateById(updateDO);
 
+        // 新的用户名 / 邮箱 / 手机号记入注册布隆过滤器
+        userRegistryBloomFilter.add(updateDO);
+
         // 清除认证缓存，下次请求重新从 DB 加载最新信息
         userAuthCacheService.evictUser(currentUserId);
 
@@ -176,11 +182,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public PageResult<UserVO> getAllUsers(int page, int size, String keyword, String role, Integer status) {
-        PageHelper.startPage(page, size);
+        long total = pageCountCache.count(PageCountCache.USER, userFilterKey(keyword, role, status),
+                () -> PageHelper.count(() -> userMapper.findAllWithFilter(keyword, role, status)));
+        PageHelper.startPage(PageCountCache.reasonablePage(page, size, total), size, false);
         java.util.List<UserDO> users = userMapper.findAllWithFilter(keyword, role, status);
-        PageInfo<UserDO> pageInfo = new PageInfo<>(users);
         java.util.List<UserVO> list = userConverter.toVOList(users);
-        return new PageResult<>(list, pageInfo.getTotal(), page, size);
+        return new PageResult<>(list, total, page, size);
+    }
+
+    /**
+     * 用户列表筛选条件的归一化表示（总数缓存 key），关键词按 MySQL 默认排序规则忽略大小写
+     */
+    private static String userFilterKey(String keyword, String role, Integer status) {
+        String kw = keyword == null ? "" : keyword.toLowerCase(java.util.Locale.ROOT);
+        String r = role == null ? "" : role;
+        if (kw.isEmpty() && r.isEmpty() && status == null) {
+            return "";
+        }
+        return "kw=" + kw + "|role=" + r + "|st=" + (status == null ? "" : status);
     }
 
     /**
@@ -0,0 +1,191 @@
+package site.geekie.shop.shoppingmall.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.dto.UserAuthCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证状态仓库：一次往返读取认证链路需要的全部 Redis 状态
+ *
+ * 通过 Lua 脚本在一次请求中读取：
+ *   - auth:user:{userId}：用户认证缓存（JSON）
+ *   - auth:blacklist:{tokenHash}：剩余 TTL（毫秒），> 0 表示已列入黑名单
+ *   - auth:force-logout:{userId}：强制登出时间戳
+ *
+ * 使用独立的 Lettuce 连接，命令超时为 auth.state.timeout-ms（默认 150ms），
+ * 远小于全局 3000ms；超时或异常时返回 AuthState.UNAVAILABLE，由调用方降级（放行 + 回源 DB）。
+ * 连接沿用主连接工厂的服务端配置（单机 / 哨兵 / 集群）、SSL 与已注册的客户端定制（如 RedisConfig 的 RESP2），
+ * 只覆盖命令超时。
+ * 三个 Key 分属不同哈希槽（黑名单按 token 哈希，无法与用户 Key 共用 hash tag），集群模式下 Lua 脚本会报 CROSSSLOT，
+ * 因此集群模式改为逐个读取（三次往返，各自受短超时约束）；单机 / 哨兵模式仍为一次往返。
+ *
+ * 读到的黑名单 / 强制登出状态会回写 TokenRevocationReplica，修补本地副本的同步延迟。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthStateRepository {
+
+    private static final DefaultRedisScript<List<String>> LOAD_SCRIPT;
+
+    static {
+        LOAD_SCRIPT = new DefaultRedisScript<>();
+        LOAD_SCRIPT.setScriptText(
+                "local user = redis.call('GET', KEYS[1]) " +
+                "local ttl = redis.call('PTTL', KEYS[2]) " +
+                "local forceLogout = redis.call('GET', KEYS[3]) " +
+                "return {user or '', tostring(ttl), forceLogout or ''}"
+        );
+        LOAD_SCRIPT.setResultType(listOfString());
+    }
+
+    private final RedisProperties redisProperties;
+    private final LettuceConnectionFactory redisConnectionFactory;
+    private final ObjectProvider<LettuceClientConfigurationBuilderCustomizer> clientCustomizers;
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationReplica revocationReplica;
+
+    @Value("${auth.state.timeout-ms:150}")
+    private long timeoutMs;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private boolean cluster;
+
+    /**
+     * 认证状态
+     *
+     * @param available     是否成功读取（false 表示 Redis 超时/异常，其余字段无意义）
+     * @param user          用户认证缓存；未命中为 null
+     * @param blacklisted   token 是否在黑名单中
+     * @param forceLogoutAt 强制登出时间戳；无标记为 null
+     */
+    public record AuthState(boolean available, UserAuthCache user, boolean blacklisted, Long forceLogoutAt) {
+
+        public static final AuthState UNAVAILABLE = new AuthState(false, null, false, null);
+    }
+
+    /**
+     * 建立短超时的专用连接
+     */
+    @PostConstruct
+    public void init() {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder();
+        if (redisProperties.getSsl().isEnabled()) {
+            builder.useSsl();
+        }
+        clientCustomizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        LettuceClientConfiguration clientConfig = builder
+                .commandTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+
+        cluster = redisConnectionFactory.isClusterAware();
+        if (cluster) {
+            connectionFactory = new LettuceConnectionFactory(redisConnectionFactory.getClusterConfiguration(), clientConfig);
+        } else if (redisConnectionFactory.isRedisSentinelAware()) {
+            connectionFactory = new LettuceConnectionFactory(redisConnectionFactory.getSentinelConfiguration(), clientConfig);
+        } else {
+            connectionFactory = new LettuceConnectionFactory(redisConnectionFactory.getStandaloneConfiguration(), clientConfig);
+        }
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        connectionFactory.destroy();
+    }
+
+    /**
+     * 一次往返（集群模式为逐个读取）读取用户认证缓存、token 黑名单和强制登出标记
+     * 不对外抛出异常，超时或失败返回 AuthState.UNAVAILABLE。
+     *
+     * @param userId    用户ID
+     * @param tokenHash TokenBlacklistService#hashToken 计算的哈希
+     * @return 认证状态
+     */
+    public AuthState load(Long userId, String tokenHash) {
+        List<String> keys = List.of(
+                UserAuthCacheService.KEY_PREFIX + userId,
+                TokenRevocationReplica.BLACKLIST_PREFIX + tokenHash,
+                TokenRevocationReplica.FORCE_LOGOUT_PREFIX + userId
+        );
+        List<String> result;
+        try {
+            result = cluster ? readEach(keys) : redisTemplate.execute(LOAD_SCRIPT, keys);
+        } catch (Exception e) {
+            log.warn("读取认证状态超时或异常，降级处理 - userId: {}，原因: {}", userId, e.getMessage());
+            return AuthState.UNAVAILABLE;
+        }
+        if (result == null || result.size() != 3) {
+            return AuthState.UNAVAILABLE;
+        }
+
+        UserAuthCache user = parseUser(userId, result.get(0));
+
+        long now = System.currentTimeMillis();
+        long blacklistTtl = Long.parseLong(result.get(1));
+        boolean blacklisted = blacklistTtl > 0;
+        if (blacklisted) {
+            revocationReplica.applyBlacklist(tokenHash, now + blacklistTtl);
+        }
+
+        Long forceLogoutAt = null;
+        String forceLogoutValue = result.get(2);
+        if (!forceLogoutValue.isEmpty()) {
+            try {
+                forceLogoutAt = Long.parseLong(forceLogoutValue);
+                revocationReplica.applyForceLogout(userId, forceLogoutAt);
+            } catch (NumberFormatException e) {
+                log.warn("无效的强制登出标记 - userId: {}", userId);
+            }
+        }
+
+        return new AuthState(true, user, blacklisted, forceLogoutAt);
+    }
+
+    /**
+     * 集群模式下逐个读取，返回与 LOAD_SCRIPT 相同的结构：{user 或 '', 黑名单 PTTL, 强制登出时间戳或 ''}
+     */
+    private List<String> readEach(List<String> keys) {
+        String user = redisTemplate.opsForValue().get(keys.get(0));
+        Long ttl = redisTemplate.getExpire(keys.get(1), TimeUnit.MILLISECONDS);
+        String forceLogout = redisTemplate.opsForValue().get(keys.get(2));
+        return List.of(user == null ? "" : user, String.valueOf(ttl == null ? -2 : ttl),
+                forceLogout == null ? "" : forceLogout);
+    }
+
+    private UserAuthCache parseUser(Long userId, String json) {
+        if (json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, UserAuthCache.class);
+        } catch (Exception e) {
+            log.warn("反序列化用户认证缓存异常 - userId: {}", userId, e);
+            return null;
+        }
+    }
+
+    // 脚本返回的数组元素均为字符串（StringRedisTemplate 以字符串反序列化）
+    @SuppressWarnings("unchecked")
+    private static Class<List<String>> listOfString() {
+        return (Class<List<String>>) (Class<?>) List.class;
+    }
+}
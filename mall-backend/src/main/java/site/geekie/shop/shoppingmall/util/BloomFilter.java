@@ -0,0 +1,166 @@
+package site.geekie.shop.shoppingmall.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器（字符串元素）
+ *
+ * 位数组与 Redis bitmap 的位序保持一致（offset 0 对应第一个字节的最高位），
+ * 便于用 SETBIT 增量持久化、用 GET 整体加载。
+ *
+ * 哈希：FNV-1a 64 位 + fmix64 派生两个哈希值，双重哈希 h1 + i * h2 得到 k 个位下标。
+ */
+public class BloomFilter {
+
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLongArray words;
+
+    /**
+     * @param numBits   位数组长度
+     * @param numHashes 哈希函数个数
+     */
+    public BloomFilter(long numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+    }
+
+    /**
+     * 按期望元素数和误判率创建
+     *
+     * @param expectedInsertions 期望元素数
+     * @param fpp                误判率（0~1）
+     * @return 布隆过滤器
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        long bits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, (bits + 7) / 8 * 8);
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * 计算元素对应的位下标
+     *
+     * @param value 元素
+     * @return k 个位下标
+     */
+    public long[] indexesOf(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        long h1 = fmix64(hash);
+        long h2 = fmix64(hash ^ 0x9e3779b97f4a7c15L) | 1L;
+
+        long[] indexes = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            indexes[i] = Math.floorMod(h1 + i * h2, numBits);
+        }
+        return indexes;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return 置位的位下标（供持久化使用）
+     */
+    public long[] put(String value) {
+        long[] indexes = indexesOf(value);
+        setBits(indexes);
+        return indexes;
+    }
+
+    /**
+     * 按位下标置位（应用其他节点广播的新增元素）
+     *
+     * @param indexes 位下标
+     */
+    public void setBits(long[] indexes) {
+        for (long index : indexes) {
+            if (index < 0 || index >= numBits) {
+                continue;
+            }
+            int word = (int) (index >>> 6);
+            long mask = 1L << (63 - (index & 63));
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false 表示一定不存在；true 表示可能存在
+     */
+    public boolean mightContain(String value) {
+        for (long index : indexesOf(value)) {
+            if ((words.get((int) (index >>> 6)) & (1L << (63 - (index & 63)))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 导出为 Redis bitmap 字节序列
+     *
+     * @return 字节数组，长度 numBits / 8
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[(int) (numBits >>> 3)];
+        for (int i = 0; i < bytes.length; i++) {
+            long word = words.get(i >>> 3);
+            bytes[i] = (byte) (word >>> (56 - ((i & 7) << 3)));
+        }
+        return bytes;
+    }
+
+    /**
+     * 合并 Redis bitmap 字节序列（按位或）
+     *
+     * @param bytes Redis GET 得到的字节数组，超出位数组长度的部分忽略
+     */
+    public void mergeBytes(byte[] bytes) {
+        int length = (int) Math.min(bytes.length, numBits >>> 3);
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == 0) {
+                continue;
+            }
+            long bits = (bytes[i] & 0xffL) << (56 - ((i & 7) << 3));
+            int word = i >>> 3;
+            long current;
+            do {
+                current = words.get(word);
+            } while (!words.compareAndSet(word, current, current | bits));
+        }
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53b87ceL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,221 @@
+package site.geekie.shop.shoppingmall.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+import site.geekie.shop.shoppingmall.service.CategoryService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 启动缓存预热
+ *
+ * 应用就绪后在有界线程池上并行执行：
+ *   - 商品：通过 MyBatis Cursor 流式读取全部上架商品（按销量倒序），
+ *     库存按批管道写入 stock:product:{id}（SET NX，不覆盖已有值），
+ *     销量前 N 的商品分批查询完整信息后写入商品缓存
+ *   - 分类：构建 cache:category:tree 与 cache:category:all
+ *
+ * 全部任务完成或超过 warmup.deadline-ms 后标记为就绪（HealthController 的 /health/ready 据此返回 200 / 503），
+ * 超时未完成的任务继续在后台执行，未预热的数据由各缓存按原有逻辑懒加载。
+ * 单个任务失败只记录日志，不影响其他任务和就绪状态。
+ *
+ * 指标：cache.warmup{task}（各任务耗时）、cache.warmup.ready（0 / 1）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupService {
+
+    private final ProductMapper productMapper;
+    private final ProductCacheService productCacheService;
+    private final StockRedisService stockRedisService;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.threads:4}")
+    private int threads;
+
+    @Value("${warmup.deadline-ms:30000}")
+    private long deadlineMs;
+
+    @Value("${warmup.product-top-n:1000}")
+    private int productTopN;
+
+    @Value("${warmup.batch-size:500}")
+    private int batchSize;
+
+    private ThreadPoolExecutor executor;
+
+    private volatile boolean ready;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile boolean timedOut;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64),
+                r -> {
+                    Thread t = new Thread(r, "cache-warmup-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("cache.warmup.ready", this, s -> s.ready ? 1 : 0).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 应用就绪后在后台线程中预热，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            ready = true;
+            return;
+        }
+        Thread coordinator = new Thread(this::warmUp, "cache-warmup-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    /**
+     * 预热是否已完成（或已超过截止时间）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 预热状态（就绪检查接口返回）
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("timedOut", timedOut);
+        if (startedAt > 0) {
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            status.put("elapsedMs", end - startedAt);
+        }
+        return status;
+    }
+
+    private void warmUp() {
+        startedAt = System.currentTimeMillis();
+        long deadline = startedAt + deadlineMs;
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        tasks.add(run("category-tree", categoryService::getCategoryTreeJson));
+        tasks.add(run("category-all", categoryService::getAllCategoriesJson));
+        // 流式读取结束后才知道销量前 N 的商品，完整信息的分批加载在其后提交
+        tasks.add(CompletableFuture.supplyAsync(() -> timed("product-stream", this::streamOnSale), executor)
+                .thenCompose(topIds -> {
+                    if (topIds == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    List<CompletableFuture<?>> batches = new ArrayList<>();
+                    for (int i = 0; i < topIds.size(); i += batchSize) {
+                        List<Long> batch = topIds.subList(i, Math.min(i + batchSize, topIds.size()));
+                        batches.add(run("product-cache", () -> productCacheService.putProducts(productMapper.findByIds(batch))));
+                    }
+                    return CompletableFuture.allOf(batches.toArray(CompletableFuture<?>[]::new));
+                }));
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture<?>[]::new))
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            log.warn("缓存预热超过截止时间 {}ms，剩余任务转入后台继续执行", deadlineMs);
+        } catch (Exception e) {
+            log.warn("等待缓存预热任务异常: {}", e.getMessage());
+        }
+        finishedAt = System.currentTimeMillis();
+        ready = true;
+        log.info("缓存预热结束，耗时 {}ms", finishedAt - startedAt);
+    }
+
+    /**
+     * 流式读取上架商品：库存按批管道写入，返回销量前 N 的商品ID
+     * Cursor 依赖打开的 SqlSession，须在事务内迭代
+     */
+    private List<Long> streamOnSale() {
+        return transactionTemplate.execute(status -> {
+            List<Long> topIds = new ArrayList<>(Math.max(0, productTopN));
+            Map<Long, Integer> stocks = new HashMap<>();
+            int total = 0;
+            try (Cursor<ProductSummaryDO> cursor = productMapper.streamOnSale()) {
+                for (ProductSummaryDO product : cursor) {
+                    if (topIds.size() < productTopN) {
+                        topIds.add(product.getId());
+                    }
+                    if (product.getStock() != null) {
+                        stocks.put(product.getId(), product.getStock());
+                    }
+                    if (stocks.size() >= batchSize) {
+                        stockRedisService.preloadStocks(stocks);
+                        stocks = new HashMap<>();
+                    }
+                    total++;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("流式读取上架商品失败", e);
+            }
+            stockRedisService.preloadStocks(stocks);
+            log.info("库存预热完成 - 上架商品数: {}", total);
+            return topIds;
+        });
+    }
+
+    private CompletableFuture<Void> run(String task, Runnable action) {
+        return CompletableFuture.runAsync(() -> timed(task, () -> {
+            action.run();
+            return null;
+        }), executor);
+    }
+
+    private <T> T timed(String task, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            log.warn("缓存预热任务失败 - task: {}，原因: {}", task, e.getMessage());
+            return null;
+        } finally {
+            sample.stop(meterRegistry.timer("cache.warmup", "task", task));
+        }
+    }
+}
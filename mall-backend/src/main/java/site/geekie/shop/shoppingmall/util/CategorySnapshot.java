@@ -0,0 +1,149 @@
+package site.geekie.shop.shoppingmall.util;
+
+import site.geekie.shop.shoppingmall.entity.CategoryDO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分类不可变快照
+ *
+ * 全部分类一次加载后预先计算：
+ *   - id -> 分类
+ *   - 父ID -> 子分类（顺序同 findAll：sort_order、created_at）
+ *   - 分类 -> 到根的路径（[根, ..., 自身]）
+ *   - 分类 -> 全部后代ID（不含自身）
+ * 构建后不再修改，变更时整体重建并替换（见 CategorySnapshotHolder），读取无需加锁。
+ *
+ * 返回的 CategoryDO 为快照内共享实例，调用方只读，不得修改。
+ * parentId 指向不存在的分类或形成环时，路径在断点处截止，不抛异常。
+ */
+public final class CategorySnapshot {
+
+    public static final CategorySnapshot EMPTY = of(Collections.emptyList());
+
+    private final List<CategoryDO> all;
+    private final Map<Long, CategoryDO> byId;
+    private final Map<Long, List<CategoryDO>> childrenByParent;
+    private final Map<Long, List<Long>> pathToRoot;
+    private final Map<Long, Set<Long>> descendants;
+
+    private CategorySnapshot(List<CategoryDO> all, Map<Long, CategoryDO> byId,
+                             Map<Long, List<CategoryDO>> childrenByParent,
+                             Map<Long, List<Long>> pathToRoot, Map<Long, Set<Long>> descendants) {
+        this.all = all;
+        this.byId = byId;
+        this.childrenByParent = childrenByParent;
+        this.pathToRoot = pathToRoot;
+        this.descendants = descendants;
+    }
+
+    /**
+     * 由全部分类构建快照
+     *
+     * @param categories 全部分类（findAll 顺序）
+     */
+    public static CategorySnapshot of(List<CategoryDO> categories) {
+        Map<Long, CategoryDO> byId = new LinkedHashMap<>();
+        Map<Long, List<CategoryDO>> children = new HashMap<>();
+        for (CategoryDO category : categories) {
+            byId.put(category.getId(), category);
+            children.computeIfAbsent(category.getParentId(), k -> new ArrayList<>()).add(category);
+        }
+
+        Map<Long, List<Long>> paths = new HashMap<>();
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        for (CategoryDO category : categories) {
+            List<Long> path = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            for (CategoryDO node = category; node != null && visited.add(node.getId());
+                 node = byId.get(node.getParentId())) {
+                path.add(node.getId());
+            }
+            Collections.reverse(path);
+            paths.put(category.getId(), Collections.unmodifiableList(path));
+            // 自身加入每个祖先的后代集合
+            for (int i = 0; i < path.size() - 1; i++) {
+                descendants.computeIfAbsent(path.get(i), k -> new HashSet<>()).add(category.getId());
+            }
+        }
+
+        children.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        descendants.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+        return new CategorySnapshot(List.copyOf(categories), Collections.unmodifiableMap(byId),
+                children, paths, descendants);
+    }
+
+    /**
+     * 全部分类（findAll 顺序）
+     */
+    public List<CategoryDO> all() {
+        return all;
+    }
+
+    /**
+     * 按ID查找分类，不存在返回 null
+     */
+    public CategoryDO get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * 按ID批量查找分类（不存在的ID不返回）
+     *
+     * @param ids 分类ID
+     * @return 分类ID -> 分类
+     */
+    public Map<Long, CategoryDO> getAll(Collection<Long> ids) {
+        Map<Long, CategoryDO> result = new HashMap<>();
+        for (Long id : ids) {
+            CategoryDO category = get(id);
+            if (category != null) {
+                result.put(id, category);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 分类名称，分类不存在返回 null
+     */
+    public String nameOf(Long id) {
+        CategoryDO category = get(id);
+        return category == null ? null : category.getName();
+    }
+
+    /**
+     * 直接子分类
+     *
+     * @param parentId 父分类ID，0 表示一级分类
+     */
+    public List<CategoryDO> children(Long parentId) {
+        return childrenByParent.getOrDefault(parentId, Collections.emptyList());
+    }
+
+    /**
+     * 从一级分类到该分类的ID路径（含自身），分类不存在返回空列表
+     */
+    public List<Long> pathToRoot(Long id) {
+        return pathToRoot.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * 全部后代分类ID（不含自身）
+     */
+    public Set<Long> descendantIds(Long id) {
+        return descendants.getOrDefault(id, Collections.emptySet());
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
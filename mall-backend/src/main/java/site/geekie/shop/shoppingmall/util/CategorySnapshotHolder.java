@@ -0,0 +1,141 @@
+package site.geekie.shop.shoppingmall.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import site.geekie.shop.shoppingmall.mapper.CategoryMapper;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 分类快照持有者
+ *
+ * 进程内分类读取（分类接口、商品转换时填充分类名称、搜索联想）都读取当前快照，
+ * 不再逐次查询 mall_category。
+ *
+ * 加载与更新：
+ *   - 首次读取时加载；之后只整体替换，读取方拿到的快照不会再变化
+ *   - 分类新增 / 修改 / 删除：事务提交后本节点立即重载，并广播 category:snapshot:refresh，其他节点收到后重载
+ *   - 每 category.snapshot.reload-interval-ms 全量重载一次，兜底广播丢失
+ *   内容有变化时依次通知监听器（旧快照, 新快照），由各缓存在本节点快照更新之后清除派生数据，
+ *   避免先清缓存、后更新快照期间按旧快照回填。
+ *
+ * 写操作中需要读取最新已提交数据的校验（同级重名、是否有子分类、商品新增 / 修改时分类是否存在）
+ * 及待修改的分类仍直接查询数据库：其他节点刚提交的分类变更可能尚未广播到本节点快照。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshotHolder {
+
+    /** 分类快照刷新广播频道 */
+    public static final String REFRESH_CHANNEL = "category:snapshot:refresh";
+
+    private final CategoryMapper categoryMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private volatile CategorySnapshot snapshot;
+
+    private final List<BiConsumer<CategorySnapshot, CategorySnapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> reload(),
+                new ChannelTopic(REFRESH_CHANNEL)
+        );
+    }
+
+    /**
+     * 当前快照（首次调用时从数据库加载）
+     */
+    public CategorySnapshot current() {
+        CategorySnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = CategorySnapshot.of(categoryMapper.findAll());
+                    snapshot = current;
+                    log.info("分类快照加载完成 - 分类数: {}", current.size());
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 注册快照变化监听器（参数为旧快照、新快照），在重载线程中同步调用
+     */
+    public void addListener(BiConsumer<CategorySnapshot, CategorySnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 分类已变更：事务提交后重载本节点快照并广播其他节点
+     */
+    public void onCategoryChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishRefresh();
+                }
+            });
+        } else {
+            publishRefresh();
+        }
+    }
+
+    /**
+     * 从数据库重载快照，内容变化时替换并通知监听器；失败时保留现有快照
+     */
+    @Scheduled(initialDelayString = "${category.snapshot.reload-interval-ms:300000}",
+            fixedDelayString = "${category.snapshot.reload-interval-ms:300000}")
+    public void reload() {
+        try {
+            CategorySnapshot previous;
+            CategorySnapshot loaded;
+            synchronized (this) {
+                previous = snapshot;
+                loaded = CategorySnapshot.of(categoryMapper.findAll());
+                if (previous != null && previous.all().equals(loaded.all())) {
+                    return;
+                }
+                snapshot = loaded;
+            }
+            log.info("分类快照已更新 - 分类数: {}", loaded.size());
+            if (previous == null) {
+                return;
+            }
+            for (BiConsumer<CategorySnapshot, CategorySnapshot> listener : listeners) {
+                try {
+                    listener.accept(previous, loaded);
+                } catch (Exception e) {
+                    log.warn("分类快照监听器执行失败: {}", e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("重载分类快照失败，继续使用现有快照", e);
+        }
+    }
+
+    private void publishRefresh() {
+        reload();
+        try {
+            stringRedisTemplate.convertAndSend(REFRESH_CHANNEL, "1");
+        } catch (Exception e) {
+            log.warn("广播分类快照刷新失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package site.geekie.shop.shoppingmall.util;
+
+import org.springframework.web.context.request.WebRequest;
+import site.geekie.shop.shoppingmall.common.PageResult;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * 条件 GET（ETag / If-None-Match）
+ *
+ * 版本标记取响应数据（VO / 分页结果）的内容哈希：各 VO 均为 @Data，哈希覆盖全部字段（含库存、销量），
+ * 由已从缓存取出的对象直接计算，无需先序列化 JSON；各节点对相同数据得到相同标记。
+ * 不用数据版本号（count:version:*）：库存、销量变化不递增版本号，且每次请求要多一次 Redis 读取。
+ * 直接输出缓存 JSON 的接口（见 RawJsonResult）对原始字节计算哈希。
+ *
+ * 用法：
+ * <pre>
+ *   if (ETags.notModified(webRequest, data)) {
+ *       return null;   // 已设置 304 和 ETag 响应头，不写响应体
+ *   }
+ * </pre>
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    /**
+     * 计算弱 ETag（W/"..."，内容语义相同即视为未修改）
+     *
+     * @param data 响应数据
+     * @return ETag
+     */
+    public static String of(Object data) {
+        long hash;
+        if (data instanceof PageResult<?> page) {
+            hash = hashAll(page.getList()) * 31
+                    + Objects.hash(page.getTotal(), page.getPage(), page.getSize(), page.getNextCursor());
+        } else if (data instanceof byte[] bytes) {
+            hash = hashBytes(bytes);
+        } else if (data instanceof Collection<?> items) {
+            hash = hashAll(items);
+        } else {
+            hash = Objects.hashCode(data);
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * 客户端缓存是否仍有效；有效时已将响应置为 304，无论是否有效都会写入 ETag 响应头
+     *
+     * @param request 当前请求
+     * @param data    响应数据
+     * @return true 表示调用方应直接返回 null
+     */
+    public static boolean notModified(WebRequest request, Object data) {
+        return request.checkNotModified(of(data));
+    }
+
+    // 列表按元素逐个混合为 64 位，降低大列表的碰撞概率
+    private static long hashAll(Collection<?> items) {
+        if (items == null) {
+            return 0;
+        }
+        long hash = items.size();
+        for (Object item : items) {
+            hash = hash * 0x100000001B3L + Objects.hashCode(item);
+        }
+        return hash;
+    }
+
+    private static long hashBytes(byte[] bytes) {
+        long hash = bytes.length;
+        for (byte b : bytes) {
+            hash = hash * 0x100000001B3L + b;
+        }
+        return hash;
+    }
+}
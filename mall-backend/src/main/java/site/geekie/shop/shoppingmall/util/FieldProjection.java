@@ -0,0 +1,99 @@
+package site.geekie.shop.shoppingmall.util;
+
+import org.springframework.beans.BeanUtils;
+import site.geekie.shop.shoppingmall.common.PageResult;
+import site.geekie.shop.shoppingmall.common.ResultCode;
+import site.geekie.shop.shoppingmall.exception.BusinessException;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 稀疏字段投影：按客户端传入的 fields 参数（逗号分隔）只返回指定字段
+ *
+ * 字段名为 VO 的属性名（如 id,name,price,mainImage），不在 VO 属性中的字段返回 INVALID_PARAMETER。
+ * fields 为空时原样返回，不做转换。
+ */
+public final class FieldProjection {
+
+    // VO 类型 -> 属性名 -> getter
+    private static final Map<Class<?>, Map<String, Method>> GETTERS = new ConcurrentHashMap<>();
+
+    private FieldProjection() {}
+
+    /**
+     * 投影分页结果中的列表
+     *
+     * @param page   分页结果
+     * @param fields 逗号分隔的字段名，为空时原样返回
+     * @param type   列表元素类型
+     * @return 分页结果（列表元素为 字段名 -> 值 的有序 Map）
+     */
+    public static <T> PageResult<?> apply(PageResult<T> page, String fields, Class<T> type) {
+        if (fields == null || fields.isBlank()) {
+            return page;
+        }
+        return new PageResult<>(project(page.getList(), fields, type),
+                page.getTotal(), page.getPage(), page.getSize(), page.getPages(), page.getNextCursor());
+    }
+
+    /**
+     * 投影列表
+     *
+     * @param items  元素列表
+     * @param fields 逗号分隔的字段名，为空时原样返回
+     * @param type   元素类型
+     * @return 列表（元素为 字段名 -> 值 的有序 Map）
+     */
+    public static <T> List<?> apply(List<T> items, String fields, Class<T> type) {
+        if (fields == null || fields.isBlank()) {
+            return items;
+        }
+        return project(items, fields, type);
+    }
+
+    private static <T> List<Map<String, Object>> project(List<T> items, String fields, Class<T> type) {
+        Map<String, Method> getters = GETTERS.computeIfAbsent(type, FieldProjection::resolveGetters);
+        Map<String, Method> selected = new LinkedHashMap<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Method getter = getters.get(name);
+            if (getter == null) {
+                throw new BusinessException(ResultCode.INVALID_PARAMETER, "不支持的字段: " + name);
+            }
+            selected.put(name, getter);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            selected.forEach((name, getter) -> {
+                try {
+                    row.put(name, getter.invoke(item));
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("读取字段失败: " + name, e);
+                }
+            });
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static Map<String, Method> resolveGetters(Class<?> type) {
+        Map<String, Method> getters = new LinkedHashMap<>();
+        for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(type)) {
+            if (pd.getReadMethod() != null && !"class".equals(pd.getName())) {
+                getters.put(pd.getName(), pd.getReadMethod());
+            }
+        }
+        return getters;
+    }
+}
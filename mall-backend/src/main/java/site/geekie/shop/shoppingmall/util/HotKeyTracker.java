@@ -0,0 +1,139 @@
+package site.geekie.shop.shoppingmall.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 热点 Key 探测（Count-Min Sketch，按时间窗口统计）
+ *
+ * 每次访问在 depth 行计数器中各自增一次，取各行最小值作为该 Key 在当前窗口内的访问次数估算（只会高估，不会低估）。
+ * 内存固定为 depth * width 个 long，与 Key 数量无关。
+ *
+ * 晋升：当前窗口内估算次数达到 promoteQps * 窗口秒数时立即标记为热点（最多 maxHotKeys 个）。
+ * 降级：窗口切换（rotate）时按上一窗口的估算 QPS 判断，低于 demoteQps 的热点被移除；
+ * 晋升 / 降级阈值分开，避免 QPS 在阈值附近时反复进出。
+ *
+ * 线程安全；窗口切换时新旧计数表交替，切换瞬间的少量计数可能落在旧表，对热点判定无影响。
+ */
+public class HotKeyTracker {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+            0xD6E8FEB86659FD93L, 0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L
+    };
+
+    private final int depth;
+    private final int mask;
+    private final long windowMs;
+    private final long promoteCount;
+    private final double demoteQps;
+    private final int maxHotKeys;
+
+    private volatile AtomicLongArray counters;
+
+    // 热点 Key -> 最近一个完整窗口的估算 QPS（晋升当时为晋升阈值）
+    private final Map<Long, Double> hotKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param depth      行数（哈希函数个数，1 ~ 6）
+     * @param width      每行计数器个数（向上取整为 2 的幂，至少 64）
+     * @param windowMs   统计窗口长度
+     * @param promoteQps 晋升阈值
+     * @param demoteQps  降级阈值（应小于晋升阈值）
+     * @param maxHotKeys 热点 Key 上限
+     */
+    public HotKeyTracker(int depth, int width, long windowMs, double promoteQps, double demoteQps, int maxHotKeys) {
+        this.depth = Math.max(1, Math.min(depth, SEEDS.length));
+        int w = Integer.highestOneBit(Math.max(64, width - 1)) << 1;
+        this.mask = w - 1;
+        this.windowMs = Math.max(1, windowMs);
+        this.promoteCount = Math.max(1, (long) Math.ceil(promoteQps * this.windowMs / 1000.0));
+        this.demoteQps = demoteQps;
+        this.maxHotKeys = maxHotKeys;
+        this.counters = new AtomicLongArray(this.depth * w);
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key Key
+     * @return 该 Key 当前是否为热点
+     */
+    public boolean record(long key) {
+        if (hotKeys.containsKey(key)) {
+            increment(counters, key);
+            return true;
+        }
+        long estimate = increment(counters, key);
+        if (estimate >= promoteCount && hotKeys.size() < maxHotKeys) {
+            hotKeys.putIfAbsent(key, promoteCount * 1000.0 / windowMs);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 该 Key 当前是否为热点
+     */
+    public boolean isHot(long key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 切换统计窗口：以刚结束的窗口更新热点 QPS，移除已冷却的热点
+     *
+     * @return 本次降级的 Key
+     */
+    public List<Long> rotate() {
+        AtomicLongArray finished = counters;
+        counters = new AtomicLongArray(finished.length());
+        if (hotKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> demoted = new ArrayList<>();
+        hotKeys.replaceAll((key, previous) -> estimate(finished, key) * 1000.0 / windowMs);
+        hotKeys.entrySet().removeIf(e -> {
+            if (e.getValue() < demoteQps) {
+                demoted.add(e.getKey());
+                return true;
+            }
+            return false;
+        });
+        return demoted;
+    }
+
+    /**
+     * 当前热点 Key 及其估算 QPS
+     */
+    public Map<Long, Double> hotKeys() {
+        return Collections.unmodifiableMap(hotKeys);
+    }
+
+    private long increment(AtomicLongArray table, long key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table.incrementAndGet(index(row, key)));
+        }
+        return min;
+    }
+
+    private long estimate(AtomicLongArray table, long key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table.get(index(row, key)));
+        }
+        return min;
+    }
+
+    private int index(int row, long key) {
+        long h = (key + 1) * SEEDS[row];
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return row * (mask + 1) + (int) (h & mask);
+    }
+}
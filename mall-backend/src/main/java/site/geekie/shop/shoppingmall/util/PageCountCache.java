@@ -0,0 +1,182 @@
+package site.geekie.shop.shoppingmall.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import site.geekie.shop.shoppingmall.mapper.TableStatsMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 分页总数缓存
+ *
+ * PageHelper 每次分页都会按相同条件执行一次 COUNT(*)，管理后台列表的 COUNT 往往比取当前页更慢。
+ * 这里按 (表, 归一化筛选条件) 缓存总数，由数据版本号保证写入后立即失效。
+ *
+ * Redis Key 设计：
+ *   - count:version:{table}            数据版本号，该表发生影响筛选结果的写入时 INCR（见 DataVersionInterceptor）
+ *   - count:{table}:{md5(筛选条件)}     "{版本号}:{总数}"，TTL count-cache.ttl-seconds
+ *   读取时一次 MGET 同时取版本号和缓存值，版本号一致才算命中；版本变化后旧条目自然过期，无需逐个删除。
+ *
+ * 估算总数（pagination.approximate-count.enabled，默认关闭）：
+ *   无筛选条件时改用 EXPLAIN 的行数估算，估算值达到 min-rows 才采用，较小的表仍精确统计。
+ *   不用 information_schema.TABLES.TABLE_ROWS：MySQL 8 默认缓存其统计值长达 24 小时。
+ *
+ * Redis 异常时直接执行 COUNT，不影响查询。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageCountCache {
+
+    public static final String PRODUCT = "mall_product";
+    public static final String ORDER = "mall_order";
+    public static final String USER = "mall_user";
+    public static final String CATEGORY = "mall_category";
+
+    /** 支持缓存总数的表（EXPLAIN 中表名直接拼入 SQL，只允许这几张表） */
+    public static final Set<String> TABLES = Set.of(PRODUCT, ORDER, USER);
+
+    private static final String VERSION_KEY_PREFIX = "count:version:";
+    private static final String COUNT_KEY_PREFIX = "count:";
+    private static final long ESTIMATE_TTL_MS = 60_000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TableStatsMapper tableStatsMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${pagination.count-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${pagination.approximate-count.enabled:false}")
+    private boolean approximateEnabled;
+
+    @Value("${pagination.approximate-count.min-rows:100000}")
+    private long approximateMinRows;
+
+    // 表 -> 估算行数（估算本身不精确，本地缓存 1 分钟即可）
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    private record Estimate(long rows, long expireAt) {}
+
+    /**
+     * 获取总数：优先估算（仅无筛选条件且已开启），其次读缓存，未命中时执行 counter 并写回
+     *
+     * @param table   表名（TABLES 之一）
+     * @param filter  归一化后的筛选条件，无筛选条件传空字符串
+     * @param counter 精确统计
+     * @return 总数
+     */
+    public long count(String table, String filter, LongSupplier counter) {
+        if (approximateEnabled && filter.isEmpty()) {
+            long estimated = estimate(table);
+            if (estimated >= approximateMinRows) {
+                record(table, "approximate");
+                return estimated;
+            }
+        }
+
+        String versionKey = versionKey(table);
+        String countKey = COUNT_KEY_PREFIX + table + ":"
+                + DigestUtils.md5DigestAsHex(filter.getBytes(StandardCharsets.UTF_8));
+        String version;
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(List.of(versionKey, countKey));
+            version = values == null || values.get(0) == null ? "0" : values.get(0);
+            String cached = values == null ? null : values.get(1);
+            if (cached != null) {
+                int sep = cached.indexOf(':');
+                if (sep > 0 && cached.substring(0, sep).equals(version)) {
+                    record(table, "hit");
+                    return Long.parseLong(cached.substring(sep + 1));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取分页总数缓存失败 - table: {}，原因: {}", table, e.getMessage());
+            record(table, "error");
+            return counter.getAsLong();
+        }
+
+        // 写回时带上统计前读到的版本号：统计期间发生写入时版本号已变化，该条目不会被命中
+        long total = counter.getAsLong();
+        record(table, "miss");
+        try {
+            stringRedisTemplate.opsForValue().set(countKey, version + ":" + total, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入分页总数缓存失败 - table: {}，原因: {}", table, e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * 数据版本号的 Redis Key（商品列表缓存等其他按版本失效的缓存共用）
+     *
+     * @param table 表名
+     */
+    public static String versionKey(String table) {
+        return VERSION_KEY_PREFIX + table;
+    }
+
+    /**
+     * 数据版本号 +1，使该表所有缓存的总数失效
+     *
+     * @param table 表名
+     */
+    public void bumpVersion(String table) {
+        try {
+            stringRedisTemplate.opsForValue().increment(versionKey(table));
+        } catch (Exception e) {
+            log.warn("更新数据版本号失败 - table: {}，原因: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 按 PageHelper reasonable 规则修正页码：小于 1 取第一页，超过总页数取最后一页
+     * （关闭 PageHelper 自带 COUNT 后需自行处理）
+     */
+    public static int reasonablePage(int page, int size, long total) {
+        int pages = size <= 0 ? 0 : (int) Math.ceil((double) total / size);
+        if (pages > 0 && page > pages) {
+            return pages;
+        }
+        return Math.max(page, 1);
+    }
+
+    private long estimate(String table) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("不支持估算的表: " + table);
+        }
+        Estimate cached = estimates.get(table);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expireAt() > now) {
+            return cached.rows();
+        }
+        long rows = 0;
+        try {
+            for (Map<String, Object> row : tableStatsMapper.explainFullScan(table)) {
+                Object value = row.get("rows");
+                if (value instanceof Number number) {
+                    rows = Math.max(rows, number.longValue());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("估算表行数失败 - table: {}，原因: {}", table, e.getMessage());
+        }
+        estimates.put(table, new Estimate(rows, now + ESTIMATE_TTL_MS));
+        return rows;
+    }
+
+    private void record(String table, String result) {
+        meterRegistry.counter("pagination.count", "table", table, "result", result).increment();
+    }
+}
@@ -0,0 +1,94 @@
+package site.geekie.shop.shoppingmall.util;
+
+import site.geekie.shop.shoppingmall.common.ResultCode;
+import site.geekie.shop.shoppingmall.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * 游标分页（keyset pagination）游标
+ *
+ * 内容：排序字段 | 排序方向 | 上一页最后一行的排序列值 | 上一页最后一行 id，Base64URL 编码后返回客户端，客户端只需原样传回。
+ * 下一页以 (排序列, id) 严格大于 / 小于游标定位，配合 (排序列, id) 复合索引，
+ * 任意深度的翻页都是一次索引范围扫描，且不执行 COUNT。
+ * 排序字段或方向与请求不一致的游标视为无效，返回 INVALID_PARAMETER。
+ *
+ * @param sortBy  排序字段（接口参数名，如 sales / createdAt）
+ * @param sortDir 排序方向（ASC / DESC）
+ * @param value   排序列值的字符串形式
+ * @param id      主键
+ */
+public record PageCursor(String sortBy, String sortDir, String value, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 游标分页支持的排序列
+     *
+     * @param sql    SQL 排序列（须非空且有 (排序列, id) 复合索引）
+     * @param getter 从行对象读取排序列值
+     * @param parser 游标中的字符串还原为 JDBC 参数类型
+     */
+    public record Column<T>(String sql, Function<T, Object> getter, Function<String, Object> parser) {}
+
+    /**
+     * 以某一行为起点构造游标
+     */
+    public static <T> PageCursor after(T row, long id, String sortBy, String sortDir, Column<T> column) {
+        return new PageCursor(sortBy, sortDir, String.valueOf(column.getter().apply(row)), id);
+    }
+
+    /**
+     * 解析客户端传回的游标
+     *
+     * @param token   游标，为空表示第一页
+     * @param sortBy  本次请求的排序字段
+     * @param sortDir 本次请求的排序方向
+     * @return 游标，第一页返回 null
+     */
+    public static PageCursor decode(String token, String sortBy, String sortDir) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        PageCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            cursor = new PageCursor(parts[0], parts[1], parts[3], Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.INVALID_PARAMETER, "无效的分页游标");
+        }
+        if (!cursor.sortBy().equals(sortBy) || !cursor.sortDir().equals(sortDir)) {
+            throw new BusinessException(ResultCode.INVALID_PARAMETER, "分页游标与排序条件不一致");
+        }
+        return cursor;
+    }
+
+    /**
+     * 编码为不透明的游标字符串
+     */
+    public String encode() {
+        String raw = sortBy + SEPARATOR + sortDir + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 排序列值还原为 JDBC 参数类型
+     */
+    public Object typedValue(Column<?> column) {
+        try {
+            return column.parser().apply(value);
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.INVALID_PARAMETER, "无效的分页游标");
+        }
+    }
+
+    /**
+     * 定位下一页的比较符：升序取更大的行，降序取更小的行
+     */
+    public static String seekOperator(String sortDir) {
+        return "ASC".equals(sortDir) ? ">" : "<";
+    }
+}
@@ -1,22 +1,105 @@
 package site.geekie.shop.shoppingmall.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+import site.geekie.shop.shoppingmall.vo.HotProductVO;
+import site.geekie.shop.shoppingmall.vo.ProductVO;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
- * 商品缓存服务
+ * 商品缓存服务（两级缓存）
  *
- * Key 格式：
- * - 正常缓存：cache:product:{productId}，存储 JSON 序列化的 ProductDO
- * - 空值缓存：cache:product:null:{productId}，防缓存穿透
+ * 缓存分为两类条目：
+ * - 摘要：除 images / detail 外的全部字段（名称、价格、库存、状态等），购物车、下单、列表卡片只读摘要
+ * - 详情：images + detail（富文本 HTML），Deflate 压缩后单独存储，仅商品详情页按需读取
  *
- * TTL：正常缓存 30 分钟，空值缓存 5 分钟
+ * L1：进程内 Caffeine 缓存，仅缓存存在商品的摘要
+ *   - 容量按估算字节数限制（maximumWeight），每个条目权重至少为 总权重 / 最大条目数，同时限制了条目数
+ *   - 写入后 TTL（product.cache.local.ttl-seconds），兜底广播丢失
+ *   - L1 中的 ProductDO 为各请求共享实例，调用方只读，不得修改
+ *
+ * L2：Redis，Key 格式：
+ * - 正常缓存：cache:product:{productId}，存储 JSON 序列化的 {expireAt, product}（expireAt 为逻辑过期时间，product 为摘要）
+ * - 详情缓存：cache:product:detail:{productId}，Deflate 压缩的 JSON {images, detail}，TTL 与摘要相同；
+ *   单个商品回源时随摘要一起写入，批量回源只写摘要，详情在首次读取时懒加载；
+ *   懒加载同样单飞合并，并经 putProduct 与摘要一起重写，两者物理 TTL 保持一致
+ * - 空值缓存：同一个 Key 写入哨兵值 __null__，防缓存穿透；读取只需一次 GET（不再先 EXISTS 空值 Key）
+ *
+ * TTL：正常缓存逻辑过期 30 分钟，物理 TTL 再多保留 5 分钟宽限期；空值缓存 5 分钟；均带 ±10% 随机抖动
+ *
+ * 批量读取（getProducts）：L1 → 一次 MGET → 一次 findByIds 回源，回写走管道。
+ *
+ * 组装结果缓存（getProductVO）：摘要 + 详情合并后组装，进程内缓存已填充分类名称的 ProductVO，热点商品详情命中时不查 Redis、不查 DB。
+ *   - 容量、TTL 与 L1 相同；VO 为共享实例，调用方只读
+ *   - 商品失效时随 L1 一起清除；分类改名 / 删除时按 categoryId 清除（cache:product:category:evict 广播）
+ *   - 组装期间发生失效时不回填，避免旧值写回
+ *
+ * 热点商品常驻（getProductVO）：
+ *   - HotKeyTracker（Count-Min Sketch）统计每个商品的访问频率，本节点 QPS 达到 product.cache.hot.promote-qps 的商品晋升为热点
+ *   - 热点商品的 VO 放入常驻 Map，不受 Caffeine 容量淘汰和 TTL 影响，大促时单个商品的流量不再打到同一个 Redis 分片
+ *   - 每个统计窗口结束时 QPS 低于 demote-qps 的商品降级移出；常驻时间超过本地 TTL 的条目也移出，下次访问重新组装（兜底广播丢失）
+ *   - 失效广播同样清除常驻条目
+ *
+ * 回源保护（getOrLoad）：
+ * - 单飞：同一节点同一商品只有一个请求回源，其余请求等待结果
+ * - 逻辑过期：宽限期内返回旧值，由后台线程刷新
+ *
+ * 失效：evictProduct 删除 Redis 后在 cache:product:evict 频道广播商品ID，所有节点（含本节点）清除 L1 和组装结果缓存。
+ *
+ * 指标：
+ * - cache.product.gets（tag tier=pinned/vo/local/redis/detail，result=hit/miss）
+ * - cache.product.hot.keys：当前常驻的热点商品数
+ * - cache.product.entry.bytes（tag type=summary/detail，op=read/write）：Redis 条目字节数，
+ *   write 反映各类条目的内存占用，read 反映读取带宽
+ * - cache.product.detail.raw.bytes：详情压缩前字节数，与 entry.bytes{type=detail,op=write} 对比得到压缩率
+ * - cache.product.stale：返回逻辑过期旧值的次数
+ * - cache.product.coalesced：被单飞合并、未重复回源的请求数
  *
  * 所有方法不对外抛出异常，由调用方 catch 后降级处理。
  */
@@ -27,54 +110,411 @@ public class ProductCacheService {
 
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final ProductMapper productMapper;
+
+    /** 商品缓存失效广播频道，消息体为商品ID */
+    public static final String EVICT_CHANNEL = "cache:product:evict";
+
+    /** 分类变更广播频道，消息体为分类ID，清除该分类下商品的组装结果缓存 */
+    public static final String CATEGORY_EVICT_CHANNEL = "cache:product:category:evict";
 
     private static final String CACHE_PREFIX = "cache:product:";
-    private static final String NULL_PREFIX = "cache:product:null:";
+    private static final String DETAIL_PREFIX = "cache:product:detail:";
+    /** 空值哨兵：商品不存在时写入正常缓存 Key，与 JSON 条目不会冲突 */
+    static final String NULL_SENTINEL = "__null__";
     private static final long CACHE_TTL_MINUTES = 30;
     private static final long NULL_TTL_MINUTES = 5;
+    private static final long STALE_GRACE_MINUTES = 5;
+
+    @Value("${product.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${product.cache.local.max-weight-mb:64}")
+    private long localMaxWeightMb;
+
+    @Value("${product.cache.local.ttl-seconds:60}")
+    private long localTtlSeconds;
+
+    // L1 本地缓存：productId -> 商品
+    private Cache<Long, ProductDO> localCache;
+
+    // 组装结果缓存：productId -> 已填充分类名称的 VO
+    private Cache<Long, ProductVO> voCache;
+
+    // 本节点失效次数，组装前后不一致时放弃回填
+    private final AtomicLong evictEpoch = new AtomicLong();
+
+    @Value("${product.cache.hot.window-ms:5000}")
+    private long hotWindowMs;
+
+    @Value("${product.cache.hot.promote-qps:200}")
+    private double hotPromoteQps;
+
+    @Value("${product.cache.hot.demote-qps:50}")
+    private double hotDemoteQps;
+
+    @Value("${product.cache.hot.max-keys:100}")
+    private int hotMaxKeys;
+
+    // 商品访问频率统计
+    private HotKeyTracker hotKeyTracker;
+
+    // 热点商品常驻缓存：productId -> VO + 常驻时间
+    private final Map<Long, PinnedEntry> pinned = new ConcurrentHashMap<>();
+
+    private record PinnedEntry(ProductVO vo, long pinnedAt) {}
+
+    // 正在进行的回源 / 刷新：productId -> 加载结果
+    private final Map<Long, CompletableFuture<ProductDO>> inFlight = new ConcurrentHashMap<>();
+
+    // 进行中的详情回源：productId -> 详情，合并同一商品的并发详情未命中
+    private final Map<Long, CompletableFuture<DetailEntry>> detailInFlight = new ConcurrentHashMap<>();
+
+    // 逻辑过期后台刷新线程池（有界队列，满时丢弃）
+    private ThreadPoolExecutor refreshExecutor;
+
+    private Counter pinnedHit;
+    private Counter voHit;
+    private Counter voMiss;
+    private Counter localHit;
+    private Counter localMiss;
+    private Counter redisHit;
+    private Counter redisMiss;
+    private Counter detailHit;
+    private Counter detailMiss;
+    private Counter staleServed;
+    private Counter coalesced;
+    private DistributionSummary summaryReadBytes;
+    private DistributionSummary summaryWriteBytes;
+    private DistributionSummary detailReadBytes;
+    private DistributionSummary detailWriteBytes;
+    private DistributionSummary detailRawBytes;
 
     /**
-     * 从缓存获取商品
-     * <p>
-     * 优先检查空值缓存（防穿透），再检查正常缓存。
-     * 缓存未命中或反序列化失败均返回 null，由调用方回源查 DB。
+     * Redis 缓存条目
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CacheEntry {
+
+        /** 逻辑过期时间（毫秒） */
+        private long expireAt;
+
+        private ProductDO product;
+    }
+
+    // 空值哨兵解析结果（product 为 null），仅用于引用比较
+    private static final CacheEntry NEGATIVE = new CacheEntry(Long.MAX_VALUE, null);
+
+    /**
+     * 商品详情缓存条目（压缩前的 JSON 结构）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class DetailEntry {
+
+        private String images;
+
+        private String detail;
+    }
+
+    /**
+     * 初始化本地缓存、命中率指标并订阅失效广播
+     */
+    @PostConstruct
+    public void init() {
+        long maxWeight = localMaxWeightMb * 1024 * 1024;
+        int minEntryWeight = (int) Math.min(Integer.MAX_VALUE, maxWeight / Math.max(1, localMaxSize));
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long id, ProductDO product) -> Math.max(minEntryWeight, estimateBytes(product)))
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        this.voCache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long id, ProductVO vo) -> Math.max(minEntryWeight, estimateBytes(vo)))
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+
+        hotKeyTracker = new HotKeyTracker(4, 4096, hotWindowMs, hotPromoteQps, hotDemoteQps, hotMaxKeys);
+        meterRegistry.gauge("cache.product.hot.keys", pinned, Map::size);
+
+        pinnedHit = counter("pinned", "hit");
+        voHit = counter("vo", "hit");
+        voMiss = counter("vo", "miss");
+        localHit = counter("local", "hit");
+        localMiss = counter("local", "miss");
+        redisHit = counter("redis", "hit");
+        redisMiss = counter("redis", "miss");
+        detailHit = counter("detail", "hit");
+        detailMiss = counter("detail", "miss");
+        staleServed = Counter.builder("cache.product.stale").register(meterRegistry);
+        coalesced = Counter.builder("cache.product.coalesced").register(meterRegistry);
+        summaryReadBytes = entryBytes("summary", "read");
+        summaryWriteBytes = entryBytes("summary", "write");
+        detailReadBytes = entryBytes("detail", "read");
+        detailWriteBytes = entryBytes("detail", "write");
+        detailRawBytes = DistributionSummary.builder("cache.product.detail.raw.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256),
+                r -> {
+                    Thread t = new Thread(r, "product-cache-refresh-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onEvictMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EVICT_CHANNEL)
+        );
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onCategoryEvictMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CATEGORY_EVICT_CHANNEL)
+        );
+    }
+
+    /**
+     * 获取已组装的商品 VO（含分类名称和详情），未命中时经 getOrLoad 取摘要、getDetail 取详情，合并后组装并缓存
      *
      * @param productId 商品ID
-     * @return 商品对象；空值缓存命中或缓存未命中均返回 null
+     * @param loader    商品回源加载函数，同 getOrLoad
+     * @param assembler 组装函数（通常为 ProductConverter#toVOWithCategory）
+     * @return 商品 VO（共享实例，只读）；商品不存在返回 null
      */
-    public ProductDO getProduct(Long productId) {
-        // 先检查空值缓存（防穿透）
-        String nullKey = NULL_PREFIX + productId;
-        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(nullKey))) {
-            log.debug("空值缓存命中，商品不存在 - productId: {}", productId);
+    public ProductVO getProductVO(Long productId, Function<Long, ProductDO> loader,
+                                  Function<ProductDO, ProductVO> assembler) {
+        boolean hot = hotKeyTracker.record(productId);
+        if (hot) {
+            PinnedEntry entry = pinned.get(productId);
+            if (entry != null) {
+                pinnedHit.increment();
+                return entry.vo();
+            }
+        }
+
+        long epoch = evictEpoch.get();
+        ProductVO cached = voCache.getIfPresent(productId);
+        if (cached != null) {
+            voHit.increment();
+            if (hot) {
+                pin(productId, cached, epoch);
+            }
+            return cached;
+        }
+        voMiss.increment();
+
+        ProductDO summary = getOrLoad(productId, loader);
+        if (summary == null) {
             return null;
         }
+        DetailEntry detail = getDetail(productId, loader);
+        ProductDO product = copySummary(summary);
+        if (detail != null) {
+            product.setImages(detail.getImages());
+            product.setDetail(detail.getDetail());
+        }
+        ProductVO vo = assembler.apply(product);
+        if (vo != null && evictEpoch.get() == epoch) {
+            voCache.put(productId, vo);
+            if (hot) {
+                pin(productId, vo, epoch);
+            }
+        }
+        return vo;
+    }
 
-        String key = CACHE_PREFIX + productId;
-        String json = stringRedisTemplate.opsForValue().get(key);
-        if (json == null) {
-            return null; // 缓存未命中
+    /**
+     * 当前热点商品及其估算 QPS（本节点），按 QPS 倒序
+     */
+    public List<HotProductVO> getHotProducts() {
+        List<HotProductVO> result = new ArrayList<>();
+        hotKeyTracker.hotKeys().forEach((id, qps) ->
+                result.add(new HotProductVO(id, Math.round(qps * 10) / 10.0, pinned.containsKey(id))));
+        result.sort(Comparator.comparingDouble(HotProductVO::getQps).reversed());
+        return result;
+    }
+
+    /**
+     * 切换热点统计窗口：移除降级的商品和常驻过久的条目
+     */
+    @Scheduled(fixedDelayString = "${product.cache.hot.window-ms:5000}")
+    public void rotateHotKeys() {
+        List<Long> demoted = hotKeyTracker.rotate();
+        demoted.forEach(pinned::remove);
+        long expireBefore = System.currentTimeMillis() - localTtlSeconds * 1000;
+        pinned.values().removeIf(entry -> entry.pinnedAt() < expireBefore);
+        if (!demoted.isEmpty()) {
+            log.info("热点商品降级 - productIds: {}", demoted);
         }
+    }
+
+    /**
+     * 放入常驻缓存；放入后发现期间发生过失效则撤回，避免旧值常驻
+     */
+    private void pin(Long productId, ProductVO vo, long epoch) {
+        pinned.put(productId, new PinnedEntry(vo, System.currentTimeMillis()));
+        if (evictEpoch.get() != epoch) {
+            pinned.remove(productId);
+        }
+    }
+
+    /**
+     * 获取商品，缓存未命中时回源加载并写入缓存
+     * <p>
+     * 读取顺序：L1 → Redis 一次 GET（空值哨兵直接返回 null，正常条目回填 L1）→ 回源。
+     * <ul>
+     *   <li>逻辑过期：Redis 条目超过逻辑过期时间后仍在物理 TTL 内，直接返回旧值，并在后台线程刷新</li>
+     *   <li>单飞：同一节点上同一商品同时只有一个回源加载，其余请求等待其结果</li>
+     *   <li>Redis 异常时降级为直接回源（仍经过单飞合并）</li>
+     * </ul>
+     *
+     * @param productId 商品ID
+     * @param loader    回源加载函数（通常为 productMapper::findById），返回 null 表示商品不存在
+     * @return 商品摘要（images / detail 为 null）；商品不存在返回 null
+     */
+    public ProductDO getOrLoad(Long productId, Function<Long, ProductDO> loader) {
+        ProductDO local = localCache.getIfPresent(productId);
+        if (local != null) {
+            localHit.increment();
+            return local;
+        }
+        localMiss.increment();
 
         try {
-            return objectMapper.readValue(json, ProductDO.class);
+            CacheEntry entry = readEntry(productId);
+            if (entry == NEGATIVE) {
+                log.debug("空值缓存命中，商品不存在 - productId: {}", productId);
+                redisHit.increment();
+                return null;
+            }
+            if (entry != null) {
+                redisHit.increment();
+                localCache.put(productId, entry.getProduct());
+                if (entry.getExpireAt() < System.currentTimeMillis()) {
+                    staleServed.increment();
+                    refreshAsync(productId, loader, entry.getProduct());
+                }
+                return entry.getProduct();
+            }
+            redisMiss.increment();
         } catch (Exception e) {
-            log.warn("反序列化商品缓存异常 - productId: {}", productId, e);
-            stringRedisTemplate.delete(key);
-            return null;
+            log.warn("查询商品缓存异常，降级查 DB - productId: {}", productId, e);
         }
+
+        return loadSingleFlight(productId, loader);
     }
 
     /**
-     * 写入商品缓存
+     * 批量获取商品
+     * <p>
+     * L1 未命中的 ID 用一次 MGET 读取 Redis；Redis 仍未命中的 ID 用一次 findByIds 回源，并以管道批量回写缓存。
+     * 逻辑过期的条目照常返回并触发后台刷新；空值哨兵视为不存在，不再回源。Redis 异常时全部 L1 未命中的 ID 直接回源。
      *
-     * @param product 商品对象（不能为 null）
+     * @param productIds 商品ID集合（null 元素忽略）
+     * @return productId -> 商品摘要（不存在的商品不包含在内）
+     */
+    public Map<Long, ProductDO> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductDO> result = new HashMap<>();
+        List<Long> redisIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(productIds)) {
+            if (id == null) {
+                continue;
+            }
+            ProductDO local = localCache.getIfPresent(id);
+            if (local != null) {
+                localHit.increment();
+                result.put(id, local);
+            } else {
+                localMiss.increment();
+                redisIds.add(id);
+            }
+        }
+        if (redisIds.isEmpty()) {
+            return result;
+        }
+
+        List<Long> missIds = new ArrayList<>();
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(
+                    redisIds.stream().map(id -> CACHE_PREFIX + id).toList());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < redisIds.size(); i++) {
+                Long id = redisIds.get(i);
+                CacheEntry entry = values == null ? null : parseEntry(id, values.get(i));
+                if (entry == null) {
+                    redisMiss.increment();
+                    missIds.add(id);
+                    continue;
+                }
+                redisHit.increment();
+                if (entry == NEGATIVE) {
+                    continue;
+                }
+                localCache.put(id, entry.getProduct());
+                result.put(id, entry.getProduct());
+                if (entry.getExpireAt() < now) {
+                    staleServed.increment();
+                    refreshAsync(id, productMapper::findById, entry.getProduct());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量查询商品缓存异常，降级查 DB - size: {}", redisIds.size(), e);
+            missIds = redisIds;
+        }
+        if (missIds.isEmpty()) {
+            return result;
+        }
+
+        // 一次查询回源全部未命中的商品
+        List<ProductDO> loaded = productMapper.findByIds(missIds).stream()
+                .map(ProductCacheService::copySummary)
+                .toList();
+        for (ProductDO product : loaded) {
+            result.put(product.getId(), product);
+        }
+        try {
+            putProducts(loaded);
+        } catch (Exception e) {
+            log.warn("批量写入商品缓存异常 - size: {}", loaded.size(), e);
+        }
+        return result;
+    }
+
+    /**
+     * 写入商品缓存（摘要 + 压缩详情，一次管道写入）
+     * 逻辑过期时间 = 基础 TTL ± 抖动，物理 TTL 在逻辑过期之后再保留一段宽限期，用于返回旧值并后台刷新。
+     *
+     * @param product 完整商品对象（不能为 null）
      */
     public void putProduct(ProductDO product) {
-        String key = CACHE_PREFIX + product.getId();
+        ProductDO summary = copySummary(product);
+        localCache.put(product.getId(), summary);
         try {
-            String json = objectMapper.writeValueAsString(product);
-            stringRedisTemplate.opsForValue().set(key, json, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+            long logicalTtlMs = jitter(TimeUnit.MINUTES.toMillis(CACHE_TTL_MINUTES));
+            long physicalTtlMs = logicalTtlMs + TimeUnit.MINUTES.toMillis(STALE_GRACE_MINUTES);
+            byte[] summaryBytes = objectMapper.writeValueAsBytes(
+                    new CacheEntry(System.currentTimeMillis() + logicalTtlMs, summary));
+            byte[] detailBytes = encodeDetail(product);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().set(
+                        (CACHE_PREFIX + product.getId()).getBytes(StandardCharsets.UTF_8), summaryBytes,
+                        Expiration.milliseconds(physicalTtlMs), RedisStringCommands.SetOption.upsert());
+                connection.stringCommands().set(
+                        (DETAIL_PREFIX + product.getId()).getBytes(StandardCharsets.UTF_8), detailBytes,
+                        Expiration.milliseconds(physicalTtlMs), RedisStringCommands.SetOption.upsert());
+                return null;
+            });
+            summaryWriteBytes.record(summaryBytes.length);
+            detailWriteBytes.record(detailBytes.length);
             log.debug("写入商品缓存成功 - productId: {}", product.getId());
         } catch (Exception e) {
             log.warn("写入商品缓存异常 - productId: {}", product.getId(), e);
@@ -82,26 +522,416 @@ public class ProductCacheService {
     }
 
     /**
-     * 缓存空值，防止缓存穿透
+     * 管道批量写入商品摘要缓存（逻辑过期与抖动规则同 putProduct；不写详情，详情在首次读取时懒加载）
+     *
+     * @param products 商品列表
+     */
+    public void putProducts(Collection<ProductDO> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, byte[]> jsonByKey = new HashMap<>();
+        Map<String, Long> ttlByKey = new HashMap<>();
+        for (ProductDO product : products) {
+            ProductDO summary = copySummary(product);
+            localCache.put(product.getId(), summary);
+            long logicalTtlMs = jitter(TimeUnit.MINUTES.toMillis(CACHE_TTL_MINUTES));
+            try {
+                String key = CACHE_PREFIX + product.getId();
+                jsonByKey.put(key, objectMapper.writeValueAsBytes(new CacheEntry(now + logicalTtlMs, summary)));
+                ttlByKey.put(key, logicalTtlMs + TimeUnit.MINUTES.toMillis(STALE_GRACE_MINUTES));
+            } catch (Exception e) {
+                log.warn("序列化商品缓存异常 - productId: {}", product.getId(), e);
+            }
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            jsonByKey.forEach((key, json) -> connection.stringCommands().set(
+                    key.getBytes(StandardCharsets.UTF_8),
+                    json,
+                    Expiration.milliseconds(ttlByKey.get(key)),
+                    RedisStringCommands.SetOption.upsert()));
+            return null;
+        });
+        jsonByKey.values().forEach(json -> summaryWriteBytes.record(json.length));
+    }
+
+    /**
+     * 获取商品详情（images + detail），Redis 未命中时单飞回源，摘要与详情经 putProduct 一起写入
+     * Redis 异常时直接回源（仍经过单飞合并）；商品不存在返回 null。
+     */
+    private DetailEntry getDetail(Long productId, Function<Long, ProductDO> loader) {
+        byte[] key = (DETAIL_PREFIX + productId).getBytes(StandardCharsets.UTF_8);
+        long epoch = evictEpoch.get();
+        try {
+            byte[] bytes = stringRedisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            if (bytes != null) {
+                detailHit.increment();
+                detailReadBytes.record(bytes.length);
+                return decodeDetail(bytes);
+            }
+            detailMiss.increment();
+        } catch (Exception e) {
+            log.warn("查询商品详情缓存异常，降级查 DB - productId: {}", productId, e);
+        }
+
+        return loadDetailSingleFlight(productId, loader, epoch);
+    }
+
+    /**
+     * 详情单飞回源：同一商品只有第一个请求执行加载，并发请求等待同一结果
+     */
+    private DetailEntry loadDetailSingleFlight(Long productId, Function<Long, ProductDO> loader, long epoch) {
+        CompletableFuture<DetailEntry> flight = new CompletableFuture<>();
+        CompletableFuture<DetailEntry> existing = detailInFlight.putIfAbsent(productId, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            DetailEntry detail = loadDetailAndCache(productId, loader, epoch);
+            flight.complete(detail);
+            return detail;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            detailInFlight.remove(productId, flight);
+        }
+    }
+
+    /**
+     * 回源完整商品，经 putProduct 一次管道写入摘要和详情（逻辑过期、物理 TTL 相同）
+     * 与组装结果缓存相同，回源期间本节点发生过失效则不回写；写入后才发现失效则删除刚写入的条目，
+     * 避免回源读到的旧数据在 evictProduct 删除之后被写回。
+     */
+    private DetailEntry loadDetailAndCache(Long productId, Function<Long, ProductDO> loader, long epoch) {
+        ProductDO product = loader.apply(productId);
+        if (product == null) {
+            return null;
+        }
+        if (evictEpoch.get() == epoch) {
+            putProduct(product);
+            if (evictEpoch.get() != epoch) {
+                localCache.invalidate(productId);
+                try {
+                    stringRedisTemplate.delete(List.of(CACHE_PREFIX + productId, DETAIL_PREFIX + productId));
+                } catch (Exception e) {
+                    log.warn("撤回商品缓存异常 - productId: {}", productId, e);
+                }
+            }
+        }
+        return new DetailEntry(product.getImages(), product.getDetail());
+    }
+
+    /**
+     * 序列化并 Deflate 压缩商品详情
+     */
+    private byte[] encodeDetail(ProductDO product) throws Exception {
+        byte[] raw = objectMapper.writeValueAsBytes(new DetailEntry(product.getImages(), product.getDetail()));
+        detailRawBytes.record(raw.length);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压并反序列化商品详情
+     */
+    private DetailEntry decodeDetail(byte[] compressed) throws Exception {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("商品详情缓存数据不完整");
+                }
+                out.write(buffer, 0, n);
+            }
+            return objectMapper.readValue(out.toByteArray(), DetailEntry.class);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 缓存空值，防止缓存穿透（在正常缓存 Key 上写入哨兵值，覆盖旧条目）
      *
      * @param productId 商品ID
      */
     public void putNull(Long productId) {
-        String nullKey = NULL_PREFIX + productId;
-        stringRedisTemplate.opsForValue().set(nullKey, "1", NULL_TTL_MINUTES, TimeUnit.MINUTES);
+        invalidateLocal(productId);
+        stringRedisTemplate.opsForValue().set(CACHE_PREFIX + productId, NULL_SENTINEL,
+                jitter(TimeUnit.MINUTES.toMillis(NULL_TTL_MINUTES)), TimeUnit.MILLISECONDS);
         log.debug("写入空值缓存 - productId: {}", productId);
     }
 
+    /**
+     * 读取并解析 Redis 缓存，未命中或格式无效返回 null，空值哨兵返回 NEGATIVE
+     */
+    private CacheEntry readEntry(Long productId) {
+        return parseEntry(productId, stringRedisTemplate.opsForValue().get(CACHE_PREFIX + productId));
+    }
+
+    /**
+     * 解析 Redis 缓存，未命中返回 null，空值哨兵返回 NEGATIVE；旧格式或损坏的条目删除后按未命中处理
+     */
+    private CacheEntry parseEntry(Long productId, String json) {
+        if (json == null) {
+            return null; // 缓存未命中
+        }
+        if (NULL_SENTINEL.equals(json)) {
+            return NEGATIVE;
+        }
+        summaryReadBytes.record(utf8Length(json));
+        try {
+            CacheEntry entry = objectMapper.readValue(json, CacheEntry.class);
+            if (entry.getProduct() != null) {
+                // 拆分前写入的完整条目：丢弃详情字段，按摘要使用
+                entry.getProduct().setImages(null);
+                entry.getProduct().setDetail(null);
+                return entry;
+            }
+        } catch (Exception e) {
+            log.warn("反序列化商品缓存异常 - productId: {}", productId, e);
+        }
+        stringRedisTemplate.delete(CACHE_PREFIX + productId);
+        return null;
+    }
+
+    /**
+     * 单飞回源：同一商品只有第一个请求执行加载，并发请求等待同一结果
+     */
+    private ProductDO loadSingleFlight(Long productId, Function<Long, ProductDO> loader) {
+        CompletableFuture<ProductDO> flight = new CompletableFuture<>();
+        CompletableFuture<ProductDO> existing = inFlight.putIfAbsent(productId, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            ProductDO product = loadAndCache(productId, loader);
+            flight.complete(product);
+            return product;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(productId, flight);
+        }
+    }
+
+    /**
+     * 后台刷新逻辑过期的条目；同一商品已有加载或刷新在进行时跳过，线程池队列满时丢弃（下次读取再触发）
+     */
+    private void refreshAsync(Long productId, Function<Long, ProductDO> loader, ProductDO stale) {
+        CompletableFuture<ProductDO> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(productId, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    flight.complete(loadAndCache(productId, loader));
+                } catch (RuntimeException e) {
+                    log.warn("后台刷新商品缓存失败 - productId: {}", productId, e);
+                    flight.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(productId, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(productId, flight);
+            flight.complete(stale);
+        }
+    }
+
+    /**
+     * 回源加载并写入缓存（商品不存在时写空值缓存并清除 L1），返回摘要
+     */
+    private ProductDO loadAndCache(Long productId, Function<Long, ProductDO> loader) {
+        ProductDO product = loader.apply(productId);
+        try {
+            if (product == null) {
+                putNull(productId);
+            } else {
+                putProduct(product);
+            }
+        } catch (Exception e) {
+            log.warn("回源后写入商品缓存异常 - productId: {}", productId, e);
+        }
+        return product == null ? null : copySummary(product);
+    }
+
+    /**
+     * TTL 随机抖动 ±10%，避免同一批写入的缓存同时过期
+     */
+    private static long jitter(long ttlMs) {
+        long range = ttlMs / 10;
+        return ttlMs - range + ThreadLocalRandom.current().nextLong(2 * range + 1);
+    }
+
     /**
      * 清除商品缓存（商品变更时调用）
      * <p>
-     * 同时清除正常缓存和空值缓存。
+     * 删除 Redis 摘要条目（正常条目或空值哨兵）和详情条目，并广播通知所有节点清除 L1 和组装结果缓存。
      *
      * @param productId 商品ID
      */
     public void evictProduct(Long productId) {
-        stringRedisTemplate.delete(CACHE_PREFIX + productId);
-        stringRedisTemplate.delete(NULL_PREFIX + productId);
+        invalidateLocal(productId);
+        stringRedisTemplate.delete(List.of(CACHE_PREFIX + productId, DETAIL_PREFIX + productId));
+        stringRedisTemplate.convertAndSend(EVICT_CHANNEL, String.valueOf(productId));
         log.debug("清除商品缓存 - productId: {}", productId);
     }
+
+    /**
+     * 清除某分类下商品的组装结果缓存（分类改名 / 删除时调用）
+     * 商品本身的 L1 / Redis 缓存不含分类名称，无需清除。
+     *
+     * @param categoryId 分类ID
+     */
+    public void evictCategory(Long categoryId) {
+        invalidateCategory(categoryId);
+        stringRedisTemplate.convertAndSend(CATEGORY_EVICT_CHANNEL, String.valueOf(categoryId));
+        log.debug("清除分类下商品组装缓存 - categoryId: {}", categoryId);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 处理失效广播消息
+     */
+    private void onEvictMessage(String body) {
+        try {
+            invalidateLocal(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的商品缓存失效消息: {}", body);
+        }
+    }
+
+    /**
+     * 处理分类变更广播消息
+     */
+    private void onCategoryEvictMessage(String body) {
+        try {
+            invalidateCategory(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的分类缓存失效消息: {}", body);
+        }
+    }
+
+    private void invalidateLocal(Long productId) {
+        evictEpoch.incrementAndGet();
+        localCache.invalidate(productId);
+        voCache.invalidate(productId);
+        pinned.remove(productId);
+    }
+
+    private void invalidateCategory(Long categoryId) {
+        evictEpoch.incrementAndGet();
+        voCache.asMap().values().removeIf(vo -> categoryId.equals(vo.getCategoryId()));
+        pinned.values().removeIf(entry -> categoryId.equals(entry.vo().getCategoryId()));
+    }
+
+    private Counter counter(String tier, String result) {
+        return Counter.builder("cache.product.gets")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary entryBytes(String type, String op) {
+        return DistributionSummary.builder("cache.product.entry.bytes")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .tag("op", op)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 复制商品摘要字段（不含 images / detail）
+     */
+    private static ProductDO copySummary(ProductDO product) {
+        ProductDO summary = new ProductDO();
+        summary.setId(product.getId());
+        summary.setCategoryId(product.getCategoryId());
+        summary.setName(product.getName());
+        summary.setSubtitle(product.getSubtitle());
+        summary.setMainImage(product.getMainImage());
+        summary.setPrice(product.getPrice());
+        summary.setStock(product.getStock());
+        summary.setStatus(product.getStatus());
+        summary.setSalesCount(product.getSalesCount());
+        summary.setCreatedAt(product.getCreatedAt());
+        summary.setUpdatedAt(product.getUpdatedAt());
+        return summary;
+    }
+
+    /**
+     * 计算字符串 UTF-8 编码后的字节数（不分配数组）
+     */
+    private static long utf8Length(String value) {
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 估算商品对象占用的字节数（字符串按 UTF-16 计，外加固定开销）
+     */
+    private static int estimateBytes(ProductDO product) {
+        long chars = length(product.getName()) + length(product.getSubtitle()) + length(product.getMainImage())
+                + length(product.getImages()) + length(product.getDetail());
+        return (int) Math.min(Integer.MAX_VALUE, 256 + chars * 2);
+    }
+
+    private static int estimateBytes(ProductVO vo) {
+        long chars = length(vo.getName()) + length(vo.getSubtitle()) + length(vo.getMainImage())
+                + length(vo.getImages()) + length(vo.getDetail()) + length(vo.getCategoryName());
+        return (int) Math.min(Integer.MAX_VALUE, 256 + chars * 2);
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
 }
@@ -0,0 +1,141 @@
+package site.geekie.shop.shoppingmall.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 商品列表页结果缓存
+ *
+ * 分类列表前几页、默认排序（销量 / 最新）的列表请求参数高度重复，整页结果直接缓存。
+ *
+ * Redis Key 设计：
+ *   - cache:listing:{shape}:{md5(筛选 + 排序 + 页码)}   "{商品版本}.{分类版本}|{JSON}"，TTL product.listing-cache.ttl-seconds
+ *   版本号即 PageCountCache 的数据版本号（count:version:mall_product / mall_category），
+ *   商品或分类写入提交后递增（见 DataVersionInterceptor）。
+ *   读取时一次 MGET 同时取两个版本号和缓存页，版本不一致即视为未命中，旧页面无需扫描删除，到期自然清理。
+ *
+ * 库存、销量的变化不递增版本号（否则每笔订单都会让所有列表页失效），由较短的 TTL 控制其滞后时间。
+ *
+ * 指标：cache.product.listing{shape, result=hit|miss|error} 及 cache.product.listing.hit.ratio{shape}。
+ * Redis 异常时直接查询，不影响业务。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductListingCache {
+
+    /** 列表第 1 ~ N 页（无分类筛选） */
+    public static final String SHAPE_LIST = "list";
+    /** 分类筛选后的列表第 1 ~ N 页 */
+    public static final String SHAPE_LIST_CATEGORY = "list-category";
+    /** 分类下全部商品 */
+    public static final String SHAPE_CATEGORY = "category";
+
+    private static final String KEY_PREFIX = "cache:listing:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.listing-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${product.listing-cache.max-page:3}")
+    private int maxPage;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 单个 key 形态的命中统计
+     */
+    private final class Stats {
+        final Counter hits;
+        final Counter misses;
+        final Counter errors;
+
+        Stats(String shape) {
+            hits = meterRegistry.counter("cache.product.listing", "shape", shape, "result", "hit");
+            misses = meterRegistry.counter("cache.product.listing", "shape", shape, "result", "miss");
+            errors = meterRegistry.counter("cache.product.listing", "shape", shape, "result", "error");
+            Gauge.builder("cache.product.listing.hit.ratio", this, s -> {
+                        double total = s.hits.count() + s.misses.count();
+                        return total == 0 ? 0 : s.hits.count() / total;
+                    })
+                    .tag("shape", shape)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 页码是否在缓存范围内
+     */
+    public boolean isCacheablePage(int page) {
+        return page >= 1 && page <= maxPage;
+    }
+
+    /**
+     * 读取缓存页，未命中或版本不一致时执行 loader 并写回
+     *
+     * @param shape  key 形态（统计命中率的维度）
+     * @param params 归一化后的筛选 + 排序 + 页码
+     * @param type   结果类型
+     * @param loader 查询
+     * @return 结果
+     */
+    public <T> T get(String shape, String params, TypeReference<T> type, Supplier<T> loader) {
+        Stats s = stats.computeIfAbsent(shape, Stats::new);
+        String key = KEY_PREFIX + shape + ":" + DigestUtils.md5DigestAsHex(params.getBytes(StandardCharsets.UTF_8));
+        String stamp;
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(List.of(
+                    PageCountCache.versionKey(PageCountCache.PRODUCT),
+                    PageCountCache.versionKey(PageCountCache.CATEGORY),
+                    key));
+            stamp = versionOf(values, 0) + "." + versionOf(values, 1);
+            String cached = values == null ? null : values.get(2);
+            if (cached != null) {
+                int sep = cached.indexOf('|');
+                if (sep > 0 && cached.substring(0, sep).equals(stamp)) {
+                    T result = objectMapper.readValue(cached.substring(sep + 1), type);
+                    s.hits.increment();
+                    return result;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取商品列表缓存失败 - shape: {}，原因: {}", shape, e.getMessage());
+            s.errors.increment();
+            return loader.get();
+        }
+
+        // 写回时带上查询前读到的版本号：查询期间发生写入时版本已变化，该条目不会被命中
+        s.misses.increment();
+        T result = loader.get();
+        try {
+            stringRedisTemplate.opsForValue().set(key, stamp + "|" + objectMapper.writeValueAsString(result),
+                    ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入商品列表缓存失败 - shape: {}，原因: {}", shape, e.getMessage());
+        }
+        return result;
+    }
+
+    private static String versionOf(List<String> values, int index) {
+        return values == null || values.get(index) == null ? "0" : values.get(index);
+    }
+}
@@ -0,0 +1,477 @@
+package site.geekie.shop.shoppingmall.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品全文检索（进程内倒排索引）
+ *
+ * 替代 name / subtitle 上的 LIKE '%kw%' 全表扫描，支持相关度排序、分类 / 状态过滤和分页。
+ *
+ * 分词：
+ *   - 中文（汉字连续片段）：索引单字 + 相邻二元组；查询时片段长度 ≥ 2 用二元组，单字用单字
+ *   - 字母数字（连续片段，转小写）：索引 1 ~ 3 个字符的全部 n-gram；查询词长度 ≤ 3 时整词匹配，
+ *     更长时拆为相邻三元组，因此片段内任意位置的子串都能命中（"phone" 命中 "iPhone 15"，"pro" 命中 "iPhone15Pro"）
+ *   - 倒排表求交集得到候选：查询词的全部词元都出现在商品文本中，但不要求相邻（"phone" 的三元组也出现在
+ *     "photo money honda" 中），因此候选再逐个校验 name / subtitle 是否包含关键词（忽略大小写），
+ *     命中集合、总数和分页与 LIKE '%kw%' 一致
+ *
+ * 相关度：BM25（k1 = 1.2，b = 0.75），名称中的词频按 3 倍计；同分按销量、ID 倒序。
+ *
+ * 构建与更新：
+ *   - 应用就绪后流式读取 mall_product 构建，构建完成前 isReady() / canSearch() 返回 false，调用方降级为 SQL 查询
+ *   - 商品变更（新增 / 修改 / 删除 / 上下架）在事务提交后广播 search:product:update，
+ *     所有节点（含本节点）按商品ID回源重建该商品的索引；构建期间收到的变更在构建完成后补做
+ *
+ * 指标：product.search（检索耗时）、product.search.docs（索引商品数）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    /** 商品索引更新广播频道，消息体为商品ID */
+    public static final String UPDATE_CHANNEL = "search:product:update";
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int LATIN_GRAM = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ProductMapper productMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 词元 -> (商品ID -> 加权词频)，读写受 lock 保护
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private Map<Long, Doc> docs = new HashMap<>();
+    private long totalLength;
+
+    private volatile boolean ready;
+
+    // 构建期间发生变更的商品ID，构建完成后补做；非构建期间为 null
+    private volatile Set<Long> changedDuringBuild;
+
+    private Timer searchTimer;
+
+    /**
+     * 索引中的商品
+     *
+     * @param terms    该商品的全部词元（删除 / 更新时用于清理倒排表）
+     * @param name     小写名称，用于校验子串
+     * @param subtitle 小写副标题，用于校验子串
+     */
+    private record Doc(long id, Long categoryId, Integer status, int salesCount, int length, Set<String> terms,
+                       String name, String subtitle) {}
+
+    /**
+     * 检索结果
+     *
+     * @param ids   当前页商品ID（按相关度排序）
+     * @param total 匹配总数
+     */
+    public record SearchResult(List<Long> ids, long total) {}
+
+    private record Scored(long id, double score, int salesCount) {}
+
+    // 排名顺序：相关度、销量、ID 均倒序
+    private static final Comparator<Scored> RANKING = (a, b) -> {
+        int c = Double.compare(b.score(), a.score());
+        if (c == 0) {
+            c = Integer.compare(b.salesCount(), a.salesCount());
+        }
+        return c != 0 ? c : Long.compare(b.id(), a.id());
+    };
+
+    @PostConstruct
+    public void init() {
+        searchTimer = Timer.builder("product.search").register(meterRegistry);
+        Gauge.builder("product.search.docs", this, index -> index.size()).register(meterRegistry);
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onUpdateMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UPDATE_CHANNEL)
+        );
+    }
+
+    /**
+     * 应用就绪后全量构建索引，失败时保持未就绪（检索降级为 SQL）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringBuild = ConcurrentHashMap.newKeySet();
+        Map<String, Map<Long, Integer>> newPostings = new HashMap<>();
+        Map<Long, Doc> newDocs = new HashMap<>();
+        long[] newLength = new long[1];
+        try {
+            productMapper.scanSearchFields(context -> {
+                ProductSummaryDO p = context.getResultObject();
+                Doc doc = addDoc(newPostings, p.getId(), p.getCategoryId(), p.getStatus(), p.getSalesCount(),
+                        p.getName(), p.getSubtitle());
+                newDocs.put(doc.id(), doc);
+                newLength[0] += doc.length();
+            });
+        } catch (Exception e) {
+            changedDuringBuild = null;
+            log.error("构建商品检索索引失败，商品搜索将降级为数据库查询", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            docs = newDocs;
+            totalLength = newLength[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Set<Long> changed = changedDuringBuild;
+        changedDuringBuild = null;
+        changed.forEach(this::refresh);
+        ready = true;
+        log.info("商品检索索引构建完成 - 商品数: {}，词元数: {}，耗时 {}ms",
+                newDocs.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 索引是否已完成构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 是否可由索引处理该关键词：索引已构建，关键词含可索引的字符，且不含 LIKE 通配符（% / _）；
+     * 其余情况（只含标点、空白，或依赖通配符语义）交给 SQL LIKE
+     */
+    public boolean canSearch(String keyword) {
+        return ready && keyword != null && keyword.indexOf('%') < 0 && keyword.indexOf('_') < 0 && !queryTerms(keyword).isEmpty();
+    }
+
+    /**
+     * 索引中的商品数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索商品
+     *
+     * @param keyword    关键词
+     * @param categoryId 分类ID过滤，null 表示不过滤
+     * @param status     状态过滤，null 表示不过滤
+     * @param offset     跳过的条数
+     * @param limit      返回的最大条数
+     * @return 当前页商品ID（相关度倒序）和匹配总数
+     */
+    public SearchResult search(String keyword, Long categoryId, Integer status, int offset, int limit) {
+        return searchTimer.record(() -> doSearch(keyword, categoryId, status, offset, limit));
+    }
+
+    private SearchResult doSearch(String keyword, Long categoryId, Integer status, int offset, int limit) {
+        List<String> terms = queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+        String needle = keyword.toLowerCase(Locale.ROOT);
+
+        // 只保留前 offset + limit 名（小顶堆），其余只计数
+        int keep = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(offset, 0) + Math.max(limit, 0));
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), RANKING.reversed());
+        long total = 0;
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+                lists.add(list);
+            }
+            // 从最短的倒排表出发求交集
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            int n = docs.size();
+            double avgLength = n == 0 ? 1 : (double) totalLength / n;
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+
+            candidates:
+            for (Map.Entry<Long, Integer> entry : lists.get(0).entrySet()) {
+                Doc doc = docs.get(entry.getKey());
+                if (doc == null
+                        || (categoryId != null && !categoryId.equals(doc.categoryId()))
+                        || (status != null && !status.equals(doc.status()))) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * doc.length() / avgLength);
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    Integer tf = i == 0 ? entry.getValue() : lists.get(i).get(doc.id());
+                    if (tf == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                // 词元不要求相邻，逐个确认确实包含关键词
+                if (!doc.name().contains(needle) && !doc.subtitle().contains(needle)) {
+                    continue;
+                }
+                total++;
+                if (keep == 0) {
+                    continue;
+                }
+                Scored scored = new Scored(doc.id(), score, doc.salesCount());
+                if (top.size() < keep) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) < 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<Long> ids = new ArrayList<>();
+        for (int i = Math.max(offset, 0); i < ranked.size(); i++) {
+            ids.add(ranked.get(i).id());
+        }
+        return new SearchResult(ids, total);
+    }
+
+    /**
+     * 商品变更后调用：事务提交后广播，所有节点回源重建该商品的索引
+     * 无事务时立即执行；Redis 异常时仅更新本节点。
+     *
+     * @param productId 商品ID
+     */
+    public void onProductChanged(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(productId);
+                }
+            });
+        } else {
+            publish(productId);
+        }
+    }
+
+    private void publish(Long productId) {
+        refresh(productId);
+        try {
+            stringRedisTemplate.convertAndSend(UPDATE_CHANNEL, String.valueOf(productId));
+        } catch (Exception e) {
+            log.warn("广播商品索引更新失败 - productId: {}，原因: {}", productId, e.getMessage());
+        }
+    }
+
+    private void onUpdateMessage(String body) {
+        try {
+            refresh(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的商品索引更新消息: {}", body);
+        } catch (Exception e) {
+            log.warn("更新商品索引失败 - productId: {}，原因: {}", body, e.getMessage());
+        }
+    }
+
+    /**
+     * 回源重建单个商品的索引，商品不存在时从索引中删除
+     */
+    private void refresh(Long productId) {
+        Set<Long> changed = changedDuringBuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+        ProductDO product = productMapper.findById(productId);
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            if (product != null) {
+                Doc doc = addDoc(postings, product.getId(), product.getCategoryId(), product.getStatus(),
+                        product.getSalesCount(), product.getName(), product.getSubtitle());
+                docs.put(doc.id(), doc);
+                totalLength += doc.length();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDoc(Long productId) {
+        Doc old = docs.remove(productId);
+        if (old == null) {
+            return;
+        }
+        totalLength -= old.length();
+        for (String term : old.terms()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Doc addDoc(Map<String, Map<Long, Integer>> target, Long id, Long categoryId, Integer status,
+                              Integer salesCount, String name, String subtitle) {
+        Map<String, Integer> tf = new HashMap<>();
+        int length = tokenize(name, NAME_WEIGHT, tf) + tokenize(subtitle, 1, tf);
+        tf.forEach((term, freq) -> target.computeIfAbsent(term, k -> new HashMap<>()).put(id, freq));
+        return new Doc(id, categoryId, status, salesCount == null ? 0 : salesCount, Math.max(1, length),
+                Set.copyOf(tf.keySet()), lower(name), lower(subtitle));
+    }
+
+    /**
+     * 索引分词：汉字单字 + 二元组，字母数字 1 ~ 3 元组；词频按权重累加
+     *
+     * @return 文本长度（汉字数 + 字母数字词数）
+     */
+    static int tokenize(String text, int weight, Map<String, Integer> tf) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int length = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            int cp = lower.codePointAt(i);
+            if (isHan(cp)) {
+                int end = runEnd(lower, i, true);
+                int[] chars = lower.substring(i, end).codePoints().toArray();
+                for (int j = 0; j < chars.length; j++) {
+                    tf.merge(new String(chars, j, 1), weight, Integer::sum);
+                    if (j + 1 < chars.length) {
+                        tf.merge(new String(chars, j, 2), weight, Integer::sum);
+                    }
+                }
+                length += chars.length;
+                i = end;
+            } else if (Character.isLetterOrDigit(cp)) {
+                int end = runEnd(lower, i, false);
+                int[] chars = lower.substring(i, end).codePoints().toArray();
+                for (int j = 0; j < chars.length; j++) {
+                    for (int n = 1; n <= LATIN_GRAM && j + n <= chars.length; n++) {
+                        tf.merge(new String(chars, j, n), weight, Integer::sum);
+                    }
+                }
+                length++;
+                i = end;
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 查询分词：汉字片段用二元组（单字片段用单字），字母数字片段不超过 3 个字符时整词、否则用三元组
+     */
+    static List<String> queryTerms(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return Collections.emptyList();
+        }
+        Map<String, Boolean> terms = new LinkedHashMap<>();
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            int cp = lower.codePointAt(i);
+            if (isHan(cp)) {
+                int end = runEnd(lower, i, true);
+                int[] chars = lower.substring(i, end).codePoints().toArray();
+                if (chars.length == 1) {
+                    terms.put(new String(chars, 0, 1), true);
+                }
+                for (int j = 0; j + 1 < chars.length; j++) {
+                    terms.put(new String(chars, j, 2), true);
+                }
+                i = end;
+            } else if (Character.isLetterOrDigit(cp)) {
+                int end = runEnd(lower, i, false);
+                int[] chars = lower.substring(i, end).codePoints().toArray();
+                if (chars.length <= LATIN_GRAM) {
+                    terms.put(new String(chars, 0, chars.length), true);
+                } else {
+                    for (int j = 0; j + LATIN_GRAM <= chars.length; j++) {
+                        terms.put(new String(chars, j, LATIN_GRAM), true);
+                    }
+                }
+                i = end;
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return new ArrayList<>(terms.keySet());
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static int runEnd(String text, int start, boolean han) {
+        int i = start;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            boolean match = han ? isHan(cp) : (Character.isLetterOrDigit(cp) && !isHan(cp));
+            if (!match) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+
+    private static boolean isHan(int cp) {
+        return Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN;
+    }
+}
@@ -0,0 +1,359 @@
+package site.geekie.shop.shoppingmall.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.entity.CategoryDO;
+import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+import site.geekie.shop.shoppingmall.vo.SuggestionVO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 搜索联想（内存前缀索引）
+ *
+ * 数据：上架商品名称 + 启用分类名称；权重为商品销量，分类权重为其下上架商品销量之和。
+ * 商品名称除整体外，空白分隔的每个词开头也作为一个前缀入口（输入 "iphone" 可联想到 "Apple iPhone 15"）。
+ *
+ * 结构（不可变快照，整体替换）：
+ *   - 全部入口按归一化文本排序，同一前缀的入口落在连续区间内，查询时二分定位区间
+ *   - 在排序数组上建权重最大值线段树，区间内取前 N 条只需 O(N·log n)，与区间大小无关
+ *     （短前缀如 "i" 可能覆盖数万个入口）
+ *   查询只读内存快照，不访问 DB / Redis。
+ *
+ * 更新：
+ *   - 应用就绪后全量加载；之后每 product.suggest.reload-interval-ms 全量重载一次，刷新销量权重
+ *   - 商品变更：订阅 search:product:update，回源该商品后更新
+ *   - 分类变更：各节点分类快照更新后（见 CategorySnapshotHolder）重载分类
+ *   - 变更合并后延迟 product.suggest.rebuild-delay-ms 重建快照，避免批量修改时反复重建
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final ProductMapper productMapper;
+    private final CategorySnapshotHolder categorySnapshotHolder;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${product.suggest.rebuild-delay-ms:1000}")
+    private long rebuildDelayMs;
+
+    // 上架商品：productId -> 联想数据
+    private final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+
+    // 启用分类：categoryId -> 名称
+    private volatile Map<Long, String> categories = Collections.emptyMap();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private ScheduledExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private record ProductEntry(String name, Long categoryId, int salesCount) {}
+
+    /**
+     * 前缀入口
+     *
+     * @param key 归一化后的入口文本（名称或名称中某个词开头的后缀）
+     */
+    private record Entry(String key, SuggestionVO suggestion, long weight) {}
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(e -> e.suggestion().getText());
+
+    /**
+     * 不可变快照
+     *
+     * @param keys    排序后的入口文本（与 entries 一一对应）
+     * @param entries 排序后的入口
+     * @param tree    线段树，节点存子区间内最优入口的下标；叶子从 leafBase 开始
+     */
+    private record Snapshot(String[] keys, Entry[] entries, int[] tree, int leafBase) {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new Entry[0], new int[0], 0);
+
+        static Snapshot of(List<Entry> sorted) {
+            int n = sorted.size();
+            String[] keys = new String[n];
+            Entry[] entries = sorted.toArray(new Entry[0]);
+            for (int i = 0; i < n; i++) {
+                keys[i] = entries[i].key();
+            }
+            int leafBase = Math.max(1, Integer.highestOneBit(Math.max(1, n - 1)) << 1);
+            int[] tree = new int[leafBase * 2];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < n; i++) {
+                tree[leafBase + i] = i;
+            }
+            Snapshot snapshot = new Snapshot(keys, entries, tree, leafBase);
+            for (int node = leafBase - 1; node >= 1; node--) {
+                tree[node] = snapshot.better(tree[2 * node], tree[2 * node + 1]);
+            }
+            return snapshot;
+        }
+
+        /**
+         * [from, to) 区间内最优入口下标，区间为空返回 -1
+         */
+        int best(int from, int to) {
+            int result = -1;
+            for (int l = from + leafBase, r = to + leafBase; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    result = better(result, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    result = better(result, tree[--r]);
+                }
+            }
+            return result;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return BY_WEIGHT.compare(entries[a], entries[b]) <= 0 ? a : b;
+        }
+    }
+
+    /**
+     * 待展开区间：best 为区间内最优入口下标
+     */
+    private record Range(int from, int to, int best) {}
+
+    @PostConstruct
+    public void init() {
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "product-suggest-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onProductMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ProductSearchIndex.UPDATE_CHANNEL)
+        );
+        categorySnapshotHolder.addListener((previous, current) -> reloadCategories());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 全量加载商品和分类并重建快照（应用就绪后及定时执行）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${product.suggest.reload-interval-ms:600000}",
+            fixedDelayString = "${product.suggest.reload-interval-ms:600000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, ProductEntry> loaded = new HashMap<>();
+            productMapper.scanSearchFields(context -> {
+                ProductSummaryDO p = context.getResultObject();
+                if (Integer.valueOf(1).equals(p.getStatus()) && p.getName() != null) {
+                    loaded.put(p.getId(), new ProductEntry(p.getName(), p.getCategoryId(), nonNull(p.getSalesCount())));
+                }
+            });
+            products.keySet().retainAll(loaded.keySet());
+            products.putAll(loaded);
+            categories = loadCategories();
+            rebuildSnapshot();
+            log.info("搜索联想索引加载完成 - 商品数: {}，分类数: {}，入口数: {}，耗时 {}ms",
+                    products.size(), categories.size(), snapshot.keys().length, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("加载搜索联想索引失败，继续使用现有快照", e);
+        }
+    }
+
+    /**
+     * 前缀联想
+     *
+     * @param query 用户输入
+     * @param limit 返回条数（1 ~ 20）
+     * @return 按权重倒序的联想词
+     */
+    public List<SuggestionVO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Snapshot current = snapshot;
+        int from = lowerBound(current.keys(), prefix);
+        int to = lowerBound(current.keys(), prefix + Character.MAX_VALUE);
+
+        // 每次取出候选最优的区间，输出其最优入口后按该位置拆成左右两段放回
+        PriorityQueue<Range> candidates = new PriorityQueue<>(
+                (a, b) -> BY_WEIGHT.compare(current.entries()[a.best()], current.entries()[b.best()]));
+        offer(candidates, current, from, to);
+        Set<String> seen = new HashSet<>();
+        List<SuggestionVO> result = new ArrayList<>(n);
+        while (result.size() < n && !candidates.isEmpty()) {
+            Range range = candidates.poll();
+            SuggestionVO s = current.entries()[range.best()].suggestion();
+            if (seen.add(s.getType() + ":" + s.getId())) {
+                result.add(s);
+            }
+            offer(candidates, current, range.from(), range.best());
+            offer(candidates, current, range.best() + 1, range.to());
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Range> candidates, Snapshot snapshot, int from, int to) {
+        if (from < to) {
+            candidates.add(new Range(from, to, snapshot.best(from, to)));
+        }
+    }
+
+    private static int lowerBound(String[] keys, String target) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(target) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void reloadCategories() {
+        try {
+            categories = loadCategories();
+            scheduleRebuild();
+        } catch (Exception e) {
+            log.warn("重载分类联想失败: {}", e.getMessage());
+        }
+    }
+
+    private void onProductMessage(String body) {
+        try {
+            Long productId = Long.parseLong(body);
+            ProductDO product = productMapper.findById(productId);
+            if (product == null || !Integer.valueOf(1).equals(product.getStatus()) || product.getName() == null) {
+                products.remove(productId);
+            } else {
+                products.put(productId, new ProductEntry(product.getName(), product.getCategoryId(),
+                        nonNull(product.getSalesCount())));
+            }
+            scheduleRebuild();
+        } catch (NumberFormatException e) {
+            log.warn("无效的商品联想更新消息: {}", body);
+        } catch (Exception e) {
+            log.warn("更新商品联想失败 - productId: {}，原因: {}", body, e.getMessage());
+        }
+    }
+
+    private Map<Long, String> loadCategories() {
+        Map<Long, String> loaded = new HashMap<>();
+        for (CategoryDO category : categorySnapshotHolder.current().all()) {
+            if (Integer.valueOf(1).equals(category.getStatus()) && category.getName() != null) {
+                loaded.put(category.getId(), category.getName());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 合并短时间内的多次变更，延迟后重建一次快照
+     */
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuildSnapshot();
+                } catch (Exception e) {
+                    log.warn("重建搜索联想快照失败", e);
+                }
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void rebuildSnapshot() {
+        List<Entry> entries = new ArrayList<>();
+        Map<Long, Long> categoryWeight = new HashMap<>();
+        products.forEach((id, p) -> {
+            SuggestionVO suggestion = new SuggestionVO(p.name(), "product", id);
+            for (String key : keysOf(p.name())) {
+                entries.add(new Entry(key, suggestion, p.salesCount()));
+            }
+            if (p.categoryId() != null) {
+                categoryWeight.merge(p.categoryId(), (long) p.salesCount(), Long::sum);
+            }
+        });
+        categories.forEach((id, name) -> {
+            SuggestionVO suggestion = new SuggestionVO(name, "category", id);
+            for (String key : keysOf(name)) {
+                entries.add(new Entry(key, suggestion, categoryWeight.getOrDefault(id, 0L) + 1));
+            }
+        });
+        entries.sort(Comparator.comparing(Entry::key));
+        snapshot = Snapshot.of(entries);
+    }
+
+    /**
+     * 入口文本：整体名称 + 每个空白分隔词开头的后缀
+     */
+    private static List<String> keysOf(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            if (i + 1 < normalized.length()) {
+                keys.add(normalized.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static int nonNull(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
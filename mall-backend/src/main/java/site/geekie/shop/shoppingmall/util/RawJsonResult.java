@@ -0,0 +1,67 @@
+package site.geekie.shop.shoppingmall.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.common.Result;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 将已序列化的 JSON 直接包装为 Result 成功响应
+ *
+ * 缓存中已是最终 JSON 的数据（如分类树）不必反序列化为 VO 再由 Spring 序列化一遍，
+ * 这里拼接预先生成的信封前缀 {"code":200,"message":"success","data": 与后缀 }，一次数组拷贝即可输出。
+ *
+ * 前缀 / 后缀由 Spring 容器中的 ObjectMapper 序列化 Result.success(占位符) 后切分得到，
+ * 与普通接口的信封格式保持一致。
+ */
+@Component
+@RequiredArgsConstructor
+public class RawJsonResult {
+
+    private static final String PLACEHOLDER = "__raw_json_data__";
+
+    private final ObjectMapper objectMapper;
+
+    private byte[] prefix;
+    private byte[] suffix;
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        String envelope = objectMapper.writeValueAsString(Result.success(PLACEHOLDER));
+        String quoted = "\"" + PLACEHOLDER + "\"";
+        int index = envelope.indexOf(quoted);
+        prefix = envelope.substring(0, index).getBytes(StandardCharsets.UTF_8);
+        suffix = envelope.substring(index + quoted.length()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 包装为完整的 Result JSON
+     *
+     * @param data data 字段的 JSON（UTF-8）
+     * @return {"code":200,"message":"success","data":...}
+     */
+    public byte[] wrap(byte[] data) {
+        byte[] body = new byte[prefix.length + data.length + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(data, 0, body, prefix.length, data.length);
+        System.arraycopy(suffix, 0, body, prefix.length + data.length, suffix.length);
+        return body;
+    }
+
+    /**
+     * 200 响应，Content-Type 为 application/json
+     *
+     * @param data data 字段的 JSON（UTF-8）
+     */
+    public ResponseEntity<byte[]> ok(byte[] data) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(wrap(data));
+    }
+}
@@ -2,14 +2,19 @@ package site.geekie.shop.shoppingmall.util;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 import site.geekie.shop.shoppingmall.entity.OrderItemDO;
 import site.geekie.shop.shoppingmall.entity.ProductDO;
 import site.geekie.shop.shoppingmall.mapper.ProductMapper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -157,6 +162,27 @@ public class StockRedisService {
         }
     }
 
+    /**
+     * 管道批量预加载库存（SET NX，已存在的 key 不覆盖，避免冲掉运行中已扣减的库存）
+     * 启动预热时调用，调用方已确认商品为上架状态。
+     *
+     * @param stocks 商品ID -> 数据库库存
+     */
+    public void preloadStocks(Map<Long, Integer> stocks) {
+        if (stocks.isEmpty()) {
+            return;
+        }
+        Expiration ttl = Expiration.from(STOCK_TTL_HOURS, TimeUnit.HOURS);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            stocks.forEach((productId, stock) -> connection.stringCommands().set(
+                    (STOCK_KEY_PREFIX + productId).getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(stock).getBytes(StandardCharsets.UTF_8),
+                    ttl, RedisStringCommands.SetOption.ifAbsent()));
+            return null;
+        });
+        log.debug("批量预加载库存 - size: {}", stocks.size());
+    }
+
     /**
      * 直接设置商品库存值（覆盖旧值）
      * 管理员在后台修改库存后调用，使缓存与数据库保持一致。
@@ -9,6 +9,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,6 +21,9 @@ import java.util.concurrent.TimeUnit;
  *
  * tokenHash 使用 SHA-256 前 16 位 hex（节省内存，碰撞率极低）。
  *
+ * 写入 Redis 后同步更新本节点的 TokenRevocationReplica，并广播吊销事件给其他节点；
+ * isBlacklisted / isForceLoggedOut 只查询本地副本，认证链路不再访问 Redis。
+ *
  * 所有方法不对外抛出异常，由调用方降级处理。
  */
 @Slf4j
@@ -28,11 +32,14 @@ import java.util.concurrent.TimeUnit;
 public class TokenBlacklistService {
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final TokenRevocationReplica revocationReplica;
 
-    private static final String BLACKLIST_PREFIX = "auth:blacklist:";
-    private static final String FORCE_LOGOUT_PREFIX = "auth:force-logout:";
+    private static final String BLACKLIST_PREFIX = TokenRevocationReplica.BLACKLIST_PREFIX;
+    private static final String FORCE_LOGOUT_PREFIX = TokenRevocationReplica.FORCE_LOGOUT_PREFIX;
     private static final long FORCE_LOGOUT_TTL_HOURS = 24;
 
+    private static final HexFormat HEX = HexFormat.of();
+
     /**
      * 将单个 token 加入黑名单
      * TTL = token 剩余有效期（已过期则不写入）
@@ -47,6 +54,7 @@ public class TokenBlacklistService {
             return;
         }
         String hash = hashToken(token);
+        revocationReplica.applyBlacklist(hash, expiresAt.getTime());
         try {
             stringRedisTemplate.opsForValue().set(
                     BLACKLIST_PREFIX + hash,
@@ -54,6 +62,7 @@ public class TokenBlacklistService {
                     remainingMs,
                     TimeUnit.MILLISECONDS
             );
+            publish(TokenRevocationReplica.EVENT_BLACKLIST, hash, expiresAt.getTime());
             log.debug("token 已加入黑名单 - hash: {}", hash);
         } catch (Exception e) {
             log.warn("写入 token 黑名单异常 - hash: {}", hash, e);
@@ -61,19 +70,23 @@ public class TokenBlacklistService {
     }
 
     /**
-     * 检查 token 是否在黑名单中
+     * 检查 token 是否在黑名单中（查询本地副本）
      *
      * @param token JWT token 字符串
      * @return true 表示已被列入黑名单（应拒绝访问）
      */
     public boolean isBlacklisted(String token) {
-        String hash = hashToken(token);
-        try {
-            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(BLACKLIST_PREFIX + hash));
-        } catch (Exception e) {
-            log.warn("查询 token 黑名单异常 - hash: {}，降级为放行", hash, e);
-            return false;
-        }
+        return revocationReplica.isBlacklisted(hashToken(token));
+    }
+
+    /**
+     * 按已计算的哈希检查黑名单（认证过滤器复用同一哈希，避免重复计算）
+     *
+     * @param tokenHash hashToken 计算的哈希
+     * @return true 表示已被列入黑名单（应拒绝访问）
+     */
+    public boolean isBlacklistedHash(String tokenHash) {
+        return revocationReplica.isBlacklisted(tokenHash);
     }
 
     /**
@@ -85,13 +98,16 @@ public class TokenBlacklistService {
      */
     public void forceLogoutUser(Long userId) {
         String key = FORCE_LOGOUT_PREFIX + userId;
+        long now = System.currentTimeMillis();
+        revocationReplica.applyForceLogout(userId, now);
         try {
             stringRedisTemplate.opsForValue().set(
                     key,
-                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(now),
                     FORCE_LOGOUT_TTL_HOURS,
                     TimeUnit.HOURS
             );
+            publish(TokenRevocationReplica.EVENT_FORCE_LOGOUT, String.valueOf(userId), now);
             log.info("写入用户强制登出标记 - userId: {}", userId);
         } catch (Exception e) {
             log.warn("写入用户强制登出标记异常 - userId: {}", userId, e);
@@ -104,8 +120,10 @@ public class TokenBlacklistService {
      * @param userId 用户ID
      */
     public void clearForceLogout(Long userId) {
+        revocationReplica.applyClearForceLogout(userId);
         try {
             stringRedisTemplate.delete(FORCE_LOGOUT_PREFIX + userId);
+            publish(TokenRevocationReplica.EVENT_CLEAR_FORCE_LOGOUT, String.valueOf(userId), 0L);
             log.debug("清除用户强制登出标记 - userId: {}", userId);
         } catch (Exception e) {
             log.warn("清除用户强制登出标记异常 - userId: {}", userId, e);
@@ -113,7 +131,7 @@ public class TokenBlacklistService {
     }
 
     /**
-     * 检查用户是否被强制登出
+     * 检查用户是否被强制登出（查询本地副本）
      * 若 force-logout 标记存在，且 token 的签发时间早于标记时间，则认为 token 已失效。
      *
      * @param userId         用户ID
@@ -121,38 +139,34 @@ public class TokenBlacklistService {
      * @return true 表示该 token 已被强制失效（应拒绝访问）
      */
     public boolean isForceLoggedOut(Long userId, long tokenIssuedAt) {
-        String key = FORCE_LOGOUT_PREFIX + userId;
-        try {
-            String value = stringRedisTemplate.opsForValue().get(key);
-            if (value == null) {
-                return false;
-            }
-            long forceLogoutAt = Long.parseLong(value);
-            // token 签发时间早于强制登出时间，认为已失效
-            return tokenIssuedAt < forceLogoutAt;
-        } catch (Exception e) {
-            log.warn("查询用户强制登出标记异常 - userId: {}，降级为放行", userId, e);
-            return false;
-        }
+        return revocationReplica.isForceLoggedOut(userId, tokenIssuedAt);
     }
 
     /**
      * 计算 token 的 SHA-256 哈希，取前 16 位 hex 字符串
      * 节省 Redis 存储空间，碰撞率极低（2^64 空间）。
+     *
+     * @param token JWT token 字符串
+     * @return 16 位 hex 哈希
      */
-    private String hashToken(String token) {
+    public String hashToken(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hashBytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
             // 取前 8 字节（16 位 hex）
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < 8; i++) {
-                sb.append(String.format("%02x", hashBytes[i]));
-            }
-            return sb.toString();
+            return HEX.formatHex(hashBytes, 0, 8);
         } catch (NoSuchAlgorithmException e) {
             // SHA-256 是 Java 标准算法，不可能抛出此异常
             throw new IllegalStateException("SHA-256 algorithm not available", e);
         }
     }
+
+    /**
+     * 广播吊销事件（序号用于各节点副本检测丢消息）
+     */
+    private void publish(char type, String subject, long value) {
+        Long seq = stringRedisTemplate.opsForValue().increment(TokenRevocationReplica.SEQ_KEY);
+        stringRedisTemplate.convertAndSend(TokenRevocationReplica.CHANNEL,
+                TokenRevocationReplica.encode(seq == null ? 0L : seq, type, subject, value));
+    }
 }
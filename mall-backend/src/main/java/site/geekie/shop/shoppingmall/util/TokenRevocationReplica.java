@@ -0,0 +1,376 @@
+package site.geekie.shop.shoppingmall.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.security.VerifiedTokenCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token 吊销状态本地副本（黑名单 + 用户级强制登出标记）
+ *
+ * Redis 仍是唯一数据源，本类在每个节点内存中维护一份副本，认证过滤器每次请求只做本地查询：
+ *   - 黑名单：tokenHash -> 过期时间，另按过期时间分桶（每桶 1 分钟），定时整桶清理
+ *   - 强制登出：userId -> 强制登出时间戳
+ *
+ * 同步方式：
+ *   - 增量：TokenBlacklistService 写 Redis 后 INCR auth:revocation:seq 并在 auth:revocation 频道广播事件
+ *   - 全量：启动时、检测到丢消息时、Redis 异常恢复后，SCAN auth:blacklist:* / auth:force-logout:* 重建副本
+ *
+ * 丢消息检测：记录全量同步时的序号基线和此后收到的事件数，定时读取 Redis 序号；
+ * 若上一轮检查时已发布的事件在一个检查周期后仍未全部收到，则触发全量同步。
+ *
+ * 指标：
+ *   - auth.revocation.replica.seq.lag：已发布但本节点尚未收到的事件数
+ *   - auth.revocation.replica.propagation：事件从发布到本节点应用的耗时
+ *   - auth.revocation.replica.sync.age：距上次全量同步的秒数
+ *   - auth.revocation.replica.resync：全量同步次数
+ *   - auth.revocation.replica.size：副本条目数（tag type=blacklist/force-logout）
+ *
+ * 应用黑名单 / 强制登出事件时同步清除 VerifiedTokenCache 中对应的已验签 token。
+ *
+ * 副本尚未完成首次同步（Redis 不可用）时，查询结果与原实现一致：降级为放行。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationReplica {
+
+    public static final String CHANNEL = "auth:revocation";
+    public static final String SEQ_KEY = "auth:revocation:seq";
+
+    static final String BLACKLIST_PREFIX = "auth:blacklist:";
+    static final String FORCE_LOGOUT_PREFIX = "auth:force-logout:";
+    static final long FORCE_LOGOUT_TTL_MS = TimeUnit.HOURS.toMillis(24);
+
+    // 事件类型
+    static final char EVENT_BLACKLIST = 'B';
+    static final char EVENT_FORCE_LOGOUT = 'F';
+    static final char EVENT_CLEAR_FORCE_LOGOUT = 'C';
+
+    // 过期分桶宽度（毫秒）
+    private static final long BUCKET_MS = 60_000L;
+    private static final int SCAN_BATCH = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // tokenHash -> token 过期时间（毫秒）
+    private final Map<String, Long> blacklist = new ConcurrentHashMap<>();
+    // 桶起始时间 -> 该桶内过期的 tokenHash
+    private final ConcurrentSkipListMap<Long, Set<String>> expiryBuckets = new ConcurrentSkipListMap<>();
+    // userId -> 强制登出时间（毫秒）
+    private final Map<Long, Long> forceLogout = new ConcurrentHashMap<>();
+
+    // 全量同步时读取的 Redis 序号基线
+    private volatile long baseSeq;
+    // 基线之后收到的事件数
+    private final AtomicLong receivedSinceBase = new AtomicLong();
+    // 上一轮检查时读取的 Redis 序号
+    private volatile long lastCheckedSeq;
+    // 最近一次读取的 Redis 序号（指标用）
+    private volatile long remoteSeq;
+    private volatile long lastSyncAt;
+    private volatile boolean resyncRequired = true;
+
+    private Timer propagationTimer;
+    private Counter resyncCounter;
+
+    /**
+     * 订阅吊销事件、注册指标并执行首次全量同步
+     */
+    @PostConstruct
+    public void init() {
+        propagationTimer = Timer.builder("auth.revocation.replica.propagation")
+                .description("吊销事件从发布到本节点应用的耗时")
+                .register(meterRegistry);
+        resyncCounter = Counter.builder("auth.revocation.replica.resync")
+                .description("吊销副本全量同步次数")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.replica.seq.lag", this, r -> r.pendingEvents())
+                .description("已发布但本节点尚未收到的吊销事件数")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.replica.sync.age", this,
+                        r -> r.lastSyncAt == 0 ? -1 : (System.currentTimeMillis() - r.lastSyncAt) / 1000.0)
+                .description("距上次全量同步的秒数，-1 表示尚未同步")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.replica.size", blacklist, Map::size)
+                .tag("type", "blacklist")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.replica.size", forceLogout, Map::size)
+                .tag("type", "force-logout")
+                .register(meterRegistry);
+
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onEvent(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL)
+        );
+
+        resync();
+    }
+
+    // ========== 本地查询 ==========
+
+    /**
+     * 检查 tokenHash 是否在黑名单中（纯内存查询）
+     *
+     * @param tokenHash TokenBlacklistService#hashToken 计算的哈希
+     * @return true 表示已被列入黑名单
+     */
+    public boolean isBlacklisted(String tokenHash) {
+        Long expiresAt = blacklist.get(tokenHash);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 检查 token 是否因用户被强制登出而失效（纯内存查询）
+     *
+     * @param userId        用户ID
+     * @param tokenIssuedAt token 签发时间（毫秒）
+     * @return true 表示该 token 签发于强制登出之前
+     */
+    public boolean isForceLoggedOut(Long userId, long tokenIssuedAt) {
+        Long forceLogoutAt = forceLogout.get(userId);
+        // JWT iat 只精确到秒：强制登出时间向下取整到秒再比较，
+        // 否则同一秒内重新登录（如改密后立即登录）签发的 token 会被误判为失效
+        return forceLogoutAt != null
+                && tokenIssuedAt < forceLogoutAt / 1000 * 1000
+                && forceLogoutAt + FORCE_LOGOUT_TTL_MS > System.currentTimeMillis();
+    }
+
+    // ========== 本地写入（写入节点直接应用，不等待广播回环） ==========
+
+    void applyBlacklist(String tokenHash, long expiresAt) {
+        blacklist.merge(tokenHash, expiresAt, Math::max);
+        expiryBuckets.computeIfAbsent(bucketOf(expiresAt), k -> ConcurrentHashMap.newKeySet()).add(tokenHash);
+        verifiedTokenCache.invalidate(tokenHash);
+    }
+
+    void applyForceLogout(Long userId, long forceLogoutAt) {
+        Long previous = forceLogout.get(userId);
+        if (previous != null && previous >= forceLogoutAt) {
+            return;
+        }
+        forceLogout.merge(userId, forceLogoutAt, Math::max);
+        verifiedTokenCache.invalidateUser(userId);
+    }
+
+    void applyClearForceLogout(Long userId) {
+        forceLogout.remove(userId);
+    }
+
+    // ========== 事件编解码 ==========
+
+    /**
+     * 事件格式：{seq}|{publishedAt}|{type}|{subject}|{value}
+     */
+    static String encode(long seq, char type, String subject, long value) {
+        return seq + "|" + System.currentTimeMillis() + "|" + type + "|" + subject + "|" + value;
+    }
+
+    private void onEvent(String body) {
+        String[] parts = body.split("\\|");
+        if (parts.length != 5 || parts[2].length() != 1) {
+            log.warn("无效的吊销事件消息: {}", body);
+            return;
+        }
+        try {
+            long seq = Long.parseLong(parts[0]);
+            long publishedAt = Long.parseLong(parts[1]);
+            String subject = parts[3];
+            long value = Long.parseLong(parts[4]);
+
+            switch (parts[2].charAt(0)) {
+                case EVENT_BLACKLIST -> applyBlacklist(subject, value);
+                case EVENT_FORCE_LOGOUT -> applyForceLogout(Long.parseLong(subject), value);
+                case EVENT_CLEAR_FORCE_LOGOUT -> applyClearForceLogout(Long.parseLong(subject));
+                default -> {
+                    log.warn("未知的吊销事件类型: {}", body);
+                    return;
+                }
+            }
+
+            if (seq > baseSeq) {
+                receivedSinceBase.incrementAndGet();
+            }
+            propagationTimer.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            log.warn("无效的吊销事件消息: {}", body);
+        }
+    }
+
+    // ========== 一致性检查与全量同步 ==========
+
+    /**
+     * 定时检查副本一致性
+     * Redis 异常时标记需要全量同步，恢复后的第一轮检查即执行同步。
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation-replica.check-interval-ms:5000}")
+    public void checkConsistency() {
+        if (resyncRequired) {
+            resync();
+            return;
+        }
+        try {
+            long current = readSeq();
+            remoteSeq = current;
+            // 上一轮检查时已发布的事件，经过一个周期仍未全部收到，视为丢消息
+            if (receivedSinceBase.get() < lastCheckedSeq - baseSeq) {
+                log.warn("吊销事件存在丢失（期望 ≥ {}，实际 {}），执行全量同步",
+                        lastCheckedSeq - baseSeq, receivedSinceBase.get());
+                resync();
+                return;
+            }
+            lastCheckedSeq = current;
+        } catch (Exception e) {
+            log.warn("读取吊销事件序号异常，Redis 恢复后将全量同步: {}", e.getMessage());
+            resyncRequired = true;
+        }
+    }
+
+    /**
+     * 从 Redis 全量重建副本
+     * 先读序号基线再扫描，基线之后的事件在扫描期间照常应用，合并而非整体替换，避免覆盖扫描期间的新事件。
+     */
+    public synchronized void resync() {
+        Set<String> staleHashes = new HashSet<>(blacklist.keySet());
+        Set<Long> staleUsers = new HashSet<>(forceLogout.keySet());
+        try {
+            long seq = readSeq();
+            baseSeq = seq;
+            receivedSinceBase.set(0);
+
+            Map<String, Long> blacklistSnapshot = scanBlacklist();
+            Map<Long, Long> forceLogoutSnapshot = scanForceLogout();
+
+            blacklistSnapshot.forEach(this::applyBlacklist);
+            forceLogoutSnapshot.forEach(this::applyForceLogout);
+
+            // 同步开始前已存在、但 Redis 中已不存在的条目（如错过的清除事件）
+            staleHashes.removeAll(blacklistSnapshot.keySet());
+            staleHashes.forEach(blacklist::remove);
+            staleUsers.removeAll(forceLogoutSnapshot.keySet());
+            staleUsers.forEach(forceLogout::remove);
+
+            lastCheckedSeq = seq;
+            remoteSeq = seq;
+            lastSyncAt = System.currentTimeMillis();
+            resyncRequired = false;
+            resyncCounter.increment();
+            log.info("吊销副本全量同步完成 - blacklist: {}，force-logout: {}，seq: {}",
+                    blacklist.size(), forceLogout.size(), seq);
+        } catch (Exception e) {
+            resyncRequired = true;
+            log.warn("吊销副本全量同步失败，将在下次检查时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按过期分桶清理黑名单
+     */
+    @Scheduled(fixedDelay = BUCKET_MS)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        Map<Long, Set<String>> expired = expiryBuckets.headMap(bucketOf(now));
+        for (Set<String> hashes : expired.values()) {
+            for (String hash : hashes) {
+                blacklist.computeIfPresent(hash, (k, expiresAt) -> expiresAt <= now ? null : expiresAt);
+            }
+        }
+        expired.clear();
+        forceLogout.values().removeIf(at -> at + FORCE_LOGOUT_TTL_MS <= now);
+    }
+
+    private long pendingEvents() {
+        return Math.max(0, remoteSeq - baseSeq - receivedSinceBase.get());
+    }
+
+    private long readSeq() {
+        String value = stringRedisTemplate.opsForValue().get(SEQ_KEY);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    private Map<String, Long> scanBlacklist() {
+        List<String> keys = scanKeys(BLACKLIST_PREFIX + "*");
+        Map<String, Long> snapshot = new HashMap<>();
+        if (keys.isEmpty()) {
+            return snapshot;
+        }
+        // 管道批量读取剩余 TTL，换算为过期时间
+        List<Object> ttls = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < keys.size(); i++) {
+            Object ttl = ttls.get(i);
+            if (ttl instanceof Long ms && ms > 0) {
+                snapshot.put(keys.get(i).substring(BLACKLIST_PREFIX.length()), now + ms);
+            }
+        }
+        return snapshot;
+    }
+
+    private Map<Long, Long> scanForceLogout() {
+        List<String> keys = scanKeys(FORCE_LOGOUT_PREFIX + "*");
+        Map<Long, Long> snapshot = new HashMap<>();
+        if (keys.isEmpty()) {
+            return snapshot;
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            if (value == null) {
+                continue;
+            }
+            try {
+                snapshot.put(Long.parseLong(keys.get(i).substring(FORCE_LOGOUT_PREFIX.length())),
+                        Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                log.warn("无效的强制登出标记 - key: {}", keys.get(i));
+            }
+        }
+        return snapshot;
+    }
+
+    private List<String> scanKeys(String pattern) {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    private static long bucketOf(long millis) {
+        return millis - millis % BUCKET_MS;
+    }
+}
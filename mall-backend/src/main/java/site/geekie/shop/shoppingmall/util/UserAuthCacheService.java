@@ -20,6 +20,9 @@ import java.util.concurrent.TimeUnit;
  * 用途：在 JwtAuthenticationFilter 中替代每次请求查询数据库，
  * 提升认证性能。缓存内容不含 password，安全且轻量。
  *
+ * 各节点另有进程内一级缓存（见 UserPrincipalResolver），
+ * evictUser 会通过 Pub/Sub 频道 auth:user:evict 广播，通知所有节点清除本地副本。
+ *
  * 所有方法不对外抛出异常，由调用方 catch 后降级处理。
  */
 @Slf4j
@@ -30,7 +33,10 @@ public class UserAuthCacheService {
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
 
-    private static final String KEY_PREFIX = "auth:user:";
+    /** 用户认证缓存失效广播频道，消息体为 userId */
+    public static final String EVICT_CHANNEL = "auth:user:evict";
+
+    static final String KEY_PREFIX = "auth:user:";
     private static final long TTL_MINUTES = 30;
 
     /**
@@ -59,8 +65,9 @@ public class UserAuthCacheService {
      * 将用户信息写入认证缓存
      *
      * @param user 用户实体（不能为 null）
+     * @return 写入的认证缓存对象（Redis 写入失败时同样返回）
      */
-    public void putUser(UserDO user) {
+    public UserAuthCache putUser(UserDO user) {
         UserAuthCache cache = buildCache(user);
         String key = KEY_PREFIX + user.getId();
         try {
@@ -70,22 +77,25 @@ public class UserAuthCacheService {
         } catch (Exception e) {
             log.warn("写入用户认证缓存异常 - userId: {}", user.getId(), e);
         }
+        return cache;
     }
 
     /**
      * 清除用户认证缓存（用户信息变更时调用）
+     * 删除 Redis 缓存后广播失效消息，各节点清除本地一级缓存。
      *
      * @param userId 用户ID
      */
     public void evictUser(Long userId) {
         stringRedisTemplate.delete(KEY_PREFIX + userId);
+        stringRedisTemplate.convertAndSend(EVICT_CHANNEL, String.valueOf(userId));
         log.debug("清除用户认证缓存 - userId: {}", userId);
     }
 
     /**
-     * 将 UserDO 转换为 UserAuthCache
+     * 将 UserDO 转换为 UserAuthCache（不写入 Redis）
      */
-    private UserAuthCache buildCache(UserDO user) {
+    public UserAuthCache buildCache(UserDO user) {
         UserAuthCache cache = new UserAuthCache();
         cache.setId(user.getId());
         cache.setUsername(user.getUsername());
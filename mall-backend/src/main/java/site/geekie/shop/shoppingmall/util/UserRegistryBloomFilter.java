@@ -0,0 +1,252 @@
+package site.geekie.shop.shoppingmall.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import site.geekie.shop.shoppingmall.entity.UserDO;
+import site.geekie.shop.shoppingmall.mapper.UserMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 注册唯一性布隆过滤器（用户名 / 邮箱 / 手机号）
+ *
+ * 用途：注册时先查过滤器，"一定不存在"的字段跳过数据库查询；
+ * 过滤器判定"可能存在"时再查库确认。uk_username / uk_email / uk_phone 唯一约束仍是最终保障。
+ *
+ * Redis Key 设计（key 中带位数和哈希数，参数调整后自动使用新 key；{user} 为 hash tag，集群下同一槽位）：
+ *   - bloom:{user}:{field}:{numBits}:{numHashes}：bitmap
+ *   - bloom:{user}:seeded:{numBits}:{numHashes}：完整构建标记，由数据库全量构建并写回三个 bitmap 之后才设置
+ *
+ * 初始化（应用就绪后执行）：
+ *   - 完整构建标记和三个 bitmap 均存在：直接 GET 加载
+ *   - 否则流式读取 mall_user 构建，再以 BITOP OR 合并写回 Redis（不覆盖其他节点已写入的位），最后设置标记
+ *   初始化完成前 isReady() 返回 false，调用方按原逻辑查库。
+ *
+ * 新增元素：本地置位 + Lua 脚本 SETBIT 持久化 + 广播 bloom:user:add（消息只含位下标，不含明文）。
+ * 脚本只在标记和 bitmap 都存在时置位：Redis 清空或 Key 被淘汰后，不会由 SETBIT 新建一个几乎为空的 bitmap，
+ * 让之后启动的节点误当作完整过滤器加载（对已注册的值判定"一定不存在"）。
+ *
+ * 用户名、邮箱按小写归一（MySQL 默认排序规则不区分大小写），只会增加误判，不会漏判。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserRegistryBloomFilter {
+
+    public static final String ADD_CHANNEL = "bloom:user:add";
+    private static final String KEY_PREFIX = "bloom:{user}:";
+
+    // KEYS[1] 完整构建标记，KEYS[2] bitmap，ARGV 位下标；两者都存在时才置位，返回是否已写入
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1], KEYS[2]) < 2 then return 0 end " +
+            "for i = 1, #ARGV do redis.call('SETBIT', KEYS[2], ARGV[i], 1) end " +
+            "return 1",
+            Long.class);
+
+    public enum Field {
+        USERNAME, EMAIL, PHONE
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final UserMapper userMapper;
+
+    @Value("${auth.registration-bloom.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${auth.registration-bloom.fpp:0.01}")
+    private double fpp;
+
+    private final Map<Field, BloomFilter> filters = new EnumMap<>(Field.class);
+
+    private volatile boolean ready;
+
+    /**
+     * 创建过滤器并订阅新增广播
+     */
+    @PostConstruct
+    public void init() {
+        for (Field field : Field.values()) {
+            filters.put(field, BloomFilter.create(expectedUsers, fpp));
+        }
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onAddMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ADD_CHANNEL)
+        );
+    }
+
+    /**
+     * 应用就绪后加载或构建过滤器，失败时保持未就绪（注册流程全部查库）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        try {
+            if (loadFromRedis()) {
+                ready = true;
+                log.info("注册布隆过滤器已从 Redis 加载，耗时 {}ms", System.currentTimeMillis() - start);
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("从 Redis 加载注册布隆过滤器失败，改为扫描数据库: {}", e.getMessage());
+        }
+
+        try {
+            AtomicLong count = new AtomicLong();
+            userMapper.scanRegistrationKeys(context -> {
+                UserDO user = context.getResultObject();
+                putLocal(user);
+                count.incrementAndGet();
+            });
+            ready = true;
+            log.info("注册布隆过滤器已由 mall_user 构建 - 用户数: {}，耗时 {}ms",
+                    count.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("构建注册布隆过滤器失败，注册唯一性校验将全部查询数据库", e);
+            return;
+        }
+
+        try {
+            persistToRedis();
+        } catch (Exception e) {
+            log.warn("注册布隆过滤器写入 Redis 失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 过滤器是否已完成初始化
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 判断字段值是否可能已被注册；未就绪时返回 true（调用方查库）
+     *
+     * @param field 字段
+     * @param value 字段值
+     * @return false 表示一定未被注册
+     */
+    public boolean mightExist(Field field, String value) {
+        return !ready || filters.get(field).mightContain(normalize(field, value));
+    }
+
+    /**
+     * 记录新注册用户的用户名 / 邮箱 / 手机号
+     * Redis 异常不影响注册流程（本节点已置位，其他节点由数据库唯一约束兜底）。
+     *
+     * @param user 新用户
+     */
+    public void add(UserDO user) {
+        Map<Field, long[]> indexes = putLocal(user);
+        try {
+            indexes.forEach((field, bits) -> {
+                Long written = stringRedisTemplate.execute(ADD_SCRIPT, List.of(seededKey(), redisKey(field)),
+                        Arrays.stream(bits).mapToObj(String::valueOf).toArray());
+                if (written == null || written == 0) {
+                    log.debug("Redis 中注册布隆过滤器未完整构建，跳过持久化 - field: {}", field);
+                }
+            });
+            indexes.forEach((field, bits) -> stringRedisTemplate.convertAndSend(ADD_CHANNEL,
+                    field.name() + "|" + Arrays.stream(bits).mapToObj(String::valueOf)
+                            .collect(Collectors.joining(","))));
+        } catch (Exception e) {
+            log.warn("注册布隆过滤器持久化失败 - userId: {}，原因: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private Map<Field, long[]> putLocal(UserDO user) {
+        Map<Field, long[]> indexes = new EnumMap<>(Field.class);
+        putIfPresent(indexes, Field.USERNAME, user.getUsername());
+        putIfPresent(indexes, Field.EMAIL, user.getEmail());
+        putIfPresent(indexes, Field.PHONE, user.getPhone());
+        return indexes;
+    }
+
+    private void putIfPresent(Map<Field, long[]> indexes, Field field, String value) {
+        if (value != null && !value.isBlank()) {
+            indexes.put(field, filters.get(field).put(normalize(field, value)));
+        }
+    }
+
+    private void onAddMessage(String body) {
+        try {
+            int sep = body.indexOf('|');
+            Field field = Field.valueOf(body.substring(0, sep));
+            long[] bits = Arrays.stream(body.substring(sep + 1).split(","))
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+            filters.get(field).setBits(bits);
+        } catch (RuntimeException e) {
+            log.warn("无效的注册布隆过滤器广播消息: {}", body);
+        }
+    }
+
+    private boolean loadFromRedis() {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(seededKey()))) {
+            return false;
+        }
+        Map<Field, byte[]> loaded = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            byte[] key = redisKey(field).getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = stringRedisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            if (bytes == null) {
+                return false;
+            }
+            loaded.put(field, bytes);
+        }
+        loaded.forEach((field, bytes) -> filters.get(field).mergeBytes(bytes));
+        return true;
+    }
+
+    private void persistToRedis() {
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            for (Field field : Field.values()) {
+                byte[] key = redisKey(field).getBytes(StandardCharsets.UTF_8);
+                byte[] tmpKey = (redisKey(field) + ":seed").getBytes(StandardCharsets.UTF_8);
+                connection.stringCommands().set(tmpKey, filters.get(field).toBytes());
+                connection.stringCommands().bitOp(RedisStringCommands.BitOperation.OR, key, key, tmpKey);
+                connection.keyCommands().del(tmpKey);
+            }
+            // 三个 bitmap 均已合并写回后才标记为完整
+            connection.stringCommands().set(seededKey().getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+    }
+
+    private String redisKey(Field field) {
+        BloomFilter filter = filters.get(field);
+        return KEY_PREFIX + field.name().toLowerCase(Locale.ROOT) + ":"
+                + filter.getNumBits() + ":" + filter.getNumHashes();
+    }
+
+    private String seededKey() {
+        BloomFilter filter = filters.get(Field.USERNAME);
+        return KEY_PREFIX + "seeded:" + filter.getNumBits() + ":" + filter.getNumHashes();
+    }
+
+    private static String normalize(Field field, String value) {
+        String trimmed = value.trim();
+        return field == Field.PHONE ? trimmed : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,23 @@
+package site.geekie.shop.shoppingmall.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热点商品（本节点统计）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotProductVO {
+
+    /** 商品ID */
+    private Long productId;
+
+    /** 最近一个统计窗口的估算 QPS */
+    private double qps;
+
+    /** 是否已放入常驻缓存 */
+    private boolean pinned;
+}
@@ -0,0 +1,23 @@
+package site.geekie.shop.shoppingmall.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索联想词
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionVO {
+
+    /** 联想文本（商品名称或分类名称） */
+    private String text;
+
+    /** 类型：product / category */
+    private String type;
+
+    /** 商品ID或分类ID */
+    private Long id;
+}
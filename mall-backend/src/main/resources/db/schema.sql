@@ -62,7 +62,12 @@ CREATE TABLE `mall_product` (
     `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
     KEY `idx_category_id` (`category_id`),
-    KEY `idx_status` (`status`)
+    KEY `idx_status` (`status`),
+    -- 游标分页：按 (排序列, id) 定位，避免深分页扫描
+    KEY `idx_status_sales_id` (`status`, `sales_count`, `id`),
+    KEY `idx_status_created_id` (`status`, `created_at`, `id`),
+    KEY `idx_status_price_id` (`status`, `price`, `id`),
+    KEY `idx_category_status_sales_id` (`category_id`, `status`, `sales_count`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品表';
 
 -- ----------------------------------------
@@ -125,7 +130,8 @@ CREATE TABLE `mall_order` (
     UNIQUE KEY `uk_order_no` (`order_no`),
     KEY `idx_user_id` (`user_id`),
     KEY `idx_status` (`status`),
-    KEY `idx_created_at` (`created_at`)
+    -- 游标分页：按 (created_at, id) 定位
+    KEY `idx_created_at_id` (`created_at`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单表';
 
 -- ----------------------------------------
@@ -0,0 +1,124 @@
+package site.geekie.shop.shoppingmall.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import site.geekie.shop.shoppingmall.common.Result;
+import site.geekie.shop.shoppingmall.util.RawJsonResult;
+import site.geekie.shop.shoppingmall.vo.CategoryVO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分类树接口响应构建基准测试（缓存命中后的单请求开销）
+ *
+ * roundTrip：旧链路，Redis 字符串反序列化为 List&lt;CategoryVO&gt;，再由 Spring 连同 Result 序列化为响应体
+ * passthrough：新链路，缓存原始字节直接拼接预生成的 Result 前缀 / 后缀
+ *
+ * 数据：20 个一级分类 × 10 个二级 × 5 个三级（共 1220 个分类）。
+ * 分配量请加 -prof gc 查看 gc.alloc.rate.norm；setup 中校验两条链路输出字节完全一致。
+ *
+ * 运行方式：在 IDE 中执行 main，或
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=site.geekie.shop.shoppingmall.benchmark.CategoryJsonBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryJsonBenchmark {
+
+    private static final TypeReference<List<CategoryVO>> TYPE = new TypeReference<>() {};
+
+    // 与 CategoryServiceImpl 写缓存时的配置一致
+    private ObjectMapper cacheMapper;
+    // 与 Spring Boot 默认的消息转换器配置一致
+    private ObjectMapper springMapper;
+    private RawJsonResult rawJsonResult;
+    private byte[] cached;
+
+    @Setup
+    public void setup() throws Exception {
+        cacheMapper = new ObjectMapper();
+        cacheMapper.registerModule(new JavaTimeModule());
+        cacheMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        springMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        rawJsonResult = new RawJsonResult(springMapper);
+        rawJsonResult.init();
+
+        cached = cacheMapper.writeValueAsBytes(buildTree());
+        if (!Arrays.equals(roundTrip(), passthrough())) {
+            throw new IllegalStateException("passthrough 输出与 roundTrip 不一致");
+        }
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws Exception {
+        // StringRedisTemplate 先把值解码为 String
+        String json = new String(cached, StandardCharsets.UTF_8);
+        List<CategoryVO> tree = cacheMapper.readValue(json, TYPE);
+        return springMapper.writeValueAsBytes(Result.success(tree));
+    }
+
+    @Benchmark
+    public byte[] passthrough() {
+        return rawJsonResult.wrap(cached);
+    }
+
+    private static List<CategoryVO> buildTree() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 12, 15, 20, 23);
+        long[] id = {1};
+        List<CategoryVO> roots = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CategoryVO root = category(id[0]++, 0L, 1, i, createdAt);
+            List<CategoryVO> level2 = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                CategoryVO child = category(id[0]++, root.getId(), 2, j, createdAt);
+                List<CategoryVO> level3 = new ArrayList<>();
+                for (int k = 0; k < 5; k++) {
+                    level3.add(category(id[0]++, child.getId(), 3, k, createdAt));
+                }
+                child.setChildren(level3);
+                level2.add(child);
+            }
+            root.setChildren(level2);
+            roots.add(root);
+        }
+        return roots;
+    }
+
+    private static CategoryVO category(long id, Long parentId, int level, int sortOrder, LocalDateTime createdAt) {
+        CategoryVO vo = new CategoryVO();
+        vo.setId(id);
+        vo.setName("分类-" + id);
+        vo.setParentId(parentId);
+        vo.setLevel(level);
+        vo.setSortOrder(sortOrder);
+        vo.setIcon("https://cdn.example.com/category/" + id + ".png");
+        vo.setStatus(1);
+        vo.setCreatedAt(createdAt);
+        return vo;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CategoryJsonBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
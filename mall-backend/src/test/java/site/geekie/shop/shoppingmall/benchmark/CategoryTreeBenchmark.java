@@ -0,0 +1,108 @@
+package site.geekie.shop.shoppingmall.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import site.geekie.shop.shoppingmall.converter.CategoryConverter;
+import site.geekie.shop.shoppingmall.converter.CategoryConverterImpl;
+import site.geekie.shop.shoppingmall.vo.CategoryVO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分类树构建基准测试（缓存未命中时的 CPU 开销）
+ *
+ * legacyRecursive：旧实现，每个节点递归扫描全部分类查找子节点，O(n²)
+ * indexed：CategoryConverter.buildTree，一次遍历建立 父ID -> 子分类 索引，O(n)
+ *
+ * 数据：100 个一级分类 × 10 个二级 × 9 个三级（共 10100 个分类），顺序与 findAll 一致（按层级、排序值）。
+ *
+ * 运行方式：在 IDE 中执行 main，或
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=site.geekie.shop.shoppingmall.benchmark.CategoryTreeBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryTreeBenchmark {
+
+    private final CategoryConverter categoryConverter = new CategoryConverterImpl();
+    private List<CategoryVO> categories;
+
+    @Setup
+    public void setup() {
+        categories = new ArrayList<>();
+        long id = 1;
+        List<CategoryVO> level1 = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            level1.add(category(id++, 0L, 1));
+        }
+        List<CategoryVO> level2 = new ArrayList<>();
+        for (CategoryVO parent : level1) {
+            for (int j = 0; j < 10; j++) {
+                level2.add(category(id++, parent.getId(), 2));
+            }
+        }
+        List<CategoryVO> level3 = new ArrayList<>();
+        for (CategoryVO parent : level2) {
+            for (int k = 0; k < 9; k++) {
+                level3.add(category(id++, parent.getId(), 3));
+            }
+        }
+        categories.addAll(level1);
+        categories.addAll(level2);
+        categories.addAll(level3);
+        // 两种实现都只在节点上覆盖 children，重复执行结果不变
+        if (legacyRecursive().size() != 100 || indexed().size() != 100) {
+            throw new IllegalStateException("分类树构建结果不正确");
+        }
+    }
+
+    @Benchmark
+    public List<CategoryVO> legacyRecursive() {
+        return legacyBuildTree(categories, 0L);
+    }
+
+    @Benchmark
+    public List<CategoryVO> indexed() {
+        return categoryConverter.buildTree(categories, 0L);
+    }
+
+    private static List<CategoryVO> legacyBuildTree(List<CategoryVO> allCategories, Long parentId) {
+        List<CategoryVO> tree = new ArrayList<>();
+        for (CategoryVO category : allCategories) {
+            if (category.getParentId().equals(parentId)) {
+                List<CategoryVO> children = legacyBuildTree(allCategories, category.getId());
+                if (!children.isEmpty()) {
+                    category.setChildren(children);
+                }
+                tree.add(category);
+            }
+        }
+        return tree;
+    }
+
+    private static CategoryVO category(long id, Long parentId, int level) {
+        CategoryVO vo = new CategoryVO();
+        vo.setId(id);
+        vo.setName("分类-" + id);
+        vo.setParentId(parentId);
+        vo.setLevel(level);
+        vo.setSortOrder(0);
+        vo.setStatus(1);
+        return vo;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CategoryTreeBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
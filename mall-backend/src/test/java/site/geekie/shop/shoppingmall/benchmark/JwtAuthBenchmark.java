@@ -0,0 +1,111 @@
+package site.geekie.shop.shoppingmall.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import site.geekie.shop.shoppingmall.entity.UserDO;
+import site.geekie.shop.shoppingmall.security.JwtClaims;
+import site.geekie.shop.shoppingmall.security.JwtTokenProvider;
+import site.geekie.shop.shoppingmall.security.VerifiedTokenCache;
+import site.geekie.shop.shoppingmall.util.TokenBlacklistService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 认证链路基准测试（单请求 CPU 开销）
+ *
+ * legacyPerRequest：旧链路，每次取字段都新建 JwtParser、重新派生密钥并验签（共 4 次）
+ * parsedOncePerRequest：新链路，复用预构建解析器，一次验签得到 JwtClaims 后向下传递
+ * cachedPerRequest：同一 token 重复请求，命中 VerifiedTokenCache，仅计算 token 哈希
+ *
+ * 运行方式：在 IDE 中执行 main，或
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=site.geekie.shop.shoppingmall.benchmark.JwtAuthBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "dGhpc2lzYXJhbmRvbWtleWZvcmhtYWMyNTZhbGdvcml0aG0xMjM0NTY3ODkw";
+
+    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenBlacklistService tokenBlacklistService;
+    private UserDO user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "expiration", 86400000L);
+        tokenProvider.init();
+
+        user = new UserDO();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setEmail("admin@mall.com");
+        user.setCreatedAt(LocalDateTime.of(2026, 1, 12, 15, 20, 23));
+        token = tokenProvider.generateToken(user);
+
+        verifiedTokenCache = new VerifiedTokenCache(tokenProvider);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxSize", 1000L);
+        verifiedTokenCache.init();
+        tokenBlacklistService = new TokenBlacklistService(null, null);
+    }
+
+    @Benchmark
+    public boolean legacyPerRequest() {
+        // 对应旧版 doFilterInternal：getUsernameFromToken + validateToken 内的 3 次取字段
+        String username = legacyParse(token).get("username", String.class);
+        Long userId = Long.parseLong(legacyParse(token).getSubject());
+        Long createdAt = legacyParse(token).get("createdAt", Long.class);
+        Date expiration = legacyParse(token).getExpiration();
+
+        long dbCreatedAt = user.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return username != null
+                && userId.equals(user.getId())
+                && createdAt.equals(dbCreatedAt)
+                && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean parsedOncePerRequest() {
+        JwtClaims claims = tokenProvider.parseToken(token);
+        return claims.getUsername() != null && tokenProvider.validateToken(claims, user);
+    }
+
+    @Benchmark
+    public boolean cachedPerRequest() {
+        JwtClaims claims = verifiedTokenCache.verify(tokenBlacklistService.hashToken(token), token);
+        return claims.getUsername() != null && tokenProvider.validateToken(claims, user);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,142 @@
+package site.geekie.shop.shoppingmall.util;
+
+import org.junit.jupiter.api.Test;
+import site.geekie.shop.shoppingmall.common.ResultCode;
+import site.geekie.shop.shoppingmall.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 游标分页测试
+ *
+ * 编码 / 解码往返、无效游标拒绝，以及按 (排序列, id) 定位时同值行的翻页：
+ * keysetPage 在内存中按 ProductMapper.findAllAfter 的条件和排序取下一页
+ * （排序列 op 值 OR (排序列 = 值 AND id op 游标id)，ORDER BY 排序列, id 同方向）。
+ */
+class PageCursorTest {
+
+    private record Row(long id, int sales) {}
+
+    private static final PageCursor.Column<Row> SALES =
+            new PageCursor.Column<>("prod.sales_count", Row::sales, Integer::valueOf);
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        PageCursor cursor = new PageCursor("sales", "DESC", "42", 1001L);
+        assertEquals(cursor, PageCursor.decode(cursor.encode(), "sales", "DESC"));
+
+        // 值中含分隔符、中文时原样还原
+        PageCursor name = new PageCursor("name", "ASC", "A|B 手机", 7L);
+        assertEquals(name, PageCursor.decode(name.encode(), "name", "ASC"));
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        PageCursor time = new PageCursor("createdAt", "DESC", createdAt.toString(), 3L);
+        PageCursor.Column<Row> timeColumn = new PageCursor.Column<>("prod.created_at", r -> createdAt, LocalDateTime::parse);
+        assertEquals(createdAt, PageCursor.decode(time.encode(), "createdAt", "DESC").typedValue(timeColumn));
+
+        PageCursor.Column<Row> priceColumn = new PageCursor.Column<>("prod.price", r -> null, BigDecimal::new);
+        assertEquals(new BigDecimal("9.90"), new PageCursor("price", "ASC", "9.90", 1L).typedValue(priceColumn));
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertNull(PageCursor.decode(null, "sales", "DESC"));
+        assertNull(PageCursor.decode("  ", "sales", "DESC"));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid(() -> PageCursor.decode("%%%not-base64", "sales", "DESC"));
+        assertInvalid(() -> PageCursor.decode(raw("sales|DESC"), "sales", "DESC"));
+        assertInvalid(() -> PageCursor.decode(raw("sales|DESC|abc|42"), "sales", "DESC"));
+        assertInvalid(() -> PageCursor.decode(raw("sales|DESC|1|x"), "sales", "DESC").typedValue(SALES));
+    }
+
+    @Test
+    void rejectsCursorsTamperedToAnotherSort() {
+        String token = new PageCursor("sales", "DESC", "42", 1L).encode();
+        assertInvalid(() -> PageCursor.decode(token, "price", "DESC"));
+        assertInvalid(() -> PageCursor.decode(token, "sales", "ASC"));
+        assertInvalid(() -> PageCursor.decode(raw("price|DESC|1|42"), "sales", "DESC"));
+    }
+
+    @Test
+    void seekOperatorFollowsDirection() {
+        assertEquals(">", PageCursor.seekOperator("ASC"));
+        assertEquals("<", PageCursor.seekOperator("DESC"));
+    }
+
+    @Test
+    void tiesOnSortValueAreNeitherRepeatedNorSkipped() {
+        List<Row> rows = new ArrayList<>();
+        for (long id = 1; id <= 23; id++) {
+            rows.add(new Row(id, (int) (id % 3)));   // 只有 0 / 1 / 2 三个销量值，大量同值行
+        }
+        for (String dir : List.of("ASC", "DESC")) {
+            for (int size : List.of(1, 3, 4, 7)) {
+                List<Long> expected = rows.stream().sorted(order(dir)).map(Row::id).toList();
+                assertEquals(expected, pageThrough(rows, dir, size), dir + " size=" + size);
+            }
+        }
+    }
+
+    /**
+     * 与 ProductServiceImpl#findAllAfter 相同：多取一行判断是否有下一页，以本页最后一行生成游标
+     */
+    private static List<Long> pageThrough(List<Row> rows, String dir, int size) {
+        List<Long> seen = new ArrayList<>();
+        String token = null;
+        do {
+            PageCursor after = PageCursor.decode(token, "sales", dir);
+            List<Row> page = keysetPage(rows, dir, after, size + 1);
+            token = null;
+            if (page.size() > size) {
+                page = page.subList(0, size);
+                Row last = page.get(size - 1);
+                token = PageCursor.after(last, last.id(), "sales", dir, SALES).encode();
+            }
+            page.forEach(row -> seen.add(row.id()));
+        } while (token != null);
+        return seen;
+    }
+
+    private static List<Row> keysetPage(List<Row> rows, String dir, PageCursor after, int limit) {
+        String op = PageCursor.seekOperator(dir);
+        Integer value = after == null ? null : (Integer) after.typedValue(SALES);
+        return rows.stream()
+                .filter(r -> after == null
+                        || seek(r.sales(), value, op)
+                        || (r.sales() == value && seek(r.id(), after.id(), op)))
+                .sorted(order(dir))
+                .limit(limit)
+                .toList();
+    }
+
+    private static boolean seek(long column, long cursor, String op) {
+        return ">".equals(op) ? column > cursor : column < cursor;
+    }
+
+    private static Comparator<Row> order(String dir) {
+        Comparator<Row> asc = Comparator.comparingInt(Row::sales).thenComparingLong(Row::id);
+        return "ASC".equals(dir) ? asc : asc.reversed();
+    }
+
+    private static String raw(String content) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(Runnable action) {
+        BusinessException e = assertThrows(BusinessException.class, action::run);
+        assertEquals(ResultCode.INVALID_PARAMETER.getCode(), e.getCode());
+    }
+}
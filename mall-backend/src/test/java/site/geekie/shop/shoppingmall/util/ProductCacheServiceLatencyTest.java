@@ -0,0 +1,136 @@
+package site.geekie.shop.shoppingmall.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import site.geekie.shop.shoppingmall.entity.ProductDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+
+import java.math.BigDecimal;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品缓存读取往返次数测试
+ *
+ * 用 Mockito 模拟 Redis，按 mock 上的调用次数统计往返次数（不依赖耗时）：
+ * 旧读取方式（legacyGet，先 EXISTS cache:product:null:{id}，再 GET）命中时每次两次往返，
+ * 当前单 Key 哨兵方式每次只发出一次 GET，不再 EXISTS。
+ */
+class ProductCacheServiceLatencyTest {
+
+    private static final int ROUNDS = 20;
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private ObjectMapper objectMapper;
+    private ProductCacheService cacheService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        cacheService = new ProductCacheService(redisTemplate, objectMapper,
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(), mock(ProductMapper.class));
+        ReflectionTestUtils.setField(cacheService, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(cacheService, "localMaxWeightMb", 1L);
+        ReflectionTestUtils.setField(cacheService, "localTtlSeconds", 60L);
+        cacheService.init();
+    }
+
+    @Test
+    void hitTakesOneRoundTrip() throws Exception {
+        ProductDO product = new ProductDO();
+        product.setId(1L);
+        product.setName("测试商品");
+        product.setPrice(new BigDecimal("9.90"));
+        String json = objectMapper.writeValueAsString(
+                new ProductCacheService.CacheEntry(System.currentTimeMillis() + 60_000, product));
+        when(valueOps.get(anyString())).thenReturn(json);
+
+        assertOneGetPerLookup(id -> assertNotNull(cacheService.getOrLoad(id, i -> null)));
+    }
+
+    @Test
+    void negativeHitTakesOneRoundTrip() {
+        when(valueOps.get(anyString())).thenReturn(ProductCacheService.NULL_SENTINEL);
+
+        assertOneGetPerLookup(id -> assertNull(cacheService.getOrLoad(id, i -> {
+            throw new AssertionError("空值命中不应回源");
+        })));
+    }
+
+    @Test
+    void hitRoundTripsDropFromTwoToOne() throws Exception {
+        ProductDO product = new ProductDO();
+        product.setId(1L);
+        product.setName("测试商品");
+        String json = objectMapper.writeValueAsString(
+                new ProductCacheService.CacheEntry(System.currentTimeMillis() + 60_000, product));
+        when(valueOps.get(anyString())).thenReturn(json);
+        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+
+        for (long id = 1; id <= ROUNDS; id++) {
+            clearInvocations(valueOps, redisTemplate);
+            assertNotNull(legacyGet(id));
+            assertEquals(2, redisCalls(), "旧方式：EXISTS + GET");
+
+            clearInvocations(valueOps, redisTemplate);
+            assertNotNull(cacheService.getOrLoad(ROUNDS + id, i -> null));
+            assertEquals(1, redisCalls(), "单 Key 哨兵：一次 GET");
+        }
+    }
+
+    /**
+     * 旧读取方式：空值缓存在独立 Key 上，每次读取先 EXISTS 再 GET
+     */
+    private String legacyGet(long id) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey("cache:product:null:" + id))) {
+            return null;
+        }
+        return valueOps.get("cache:product:" + id);
+    }
+
+    /**
+     * 发往 Redis 的命令数（opsForValue() 只取操作对象，不计入）
+     */
+    private long redisCalls() {
+        long templateCalls = mockingDetails(redisTemplate).getInvocations().stream()
+                .filter(inv -> !inv.getMethod().getName().equals("opsForValue"))
+                .count();
+        return templateCalls + mockingDetails(valueOps).getInvocations().size();
+    }
+
+    /**
+     * 每次读取使用新 ID，确保 L1 未命中、读到 Redis；校验每个 Key 恰好一次 GET、没有 EXISTS
+     */
+    private void assertOneGetPerLookup(LongConsumer read) {
+        for (long id = 1; id <= ROUNDS; id++) {
+            clearInvocations(valueOps, redisTemplate);
+            read.accept(id);
+            verify(valueOps, times(1)).get(anyString());
+            verify(valueOps, times(1)).get("cache:product:" + id);
+            verify(redisTemplate, never()).hasKey(anyString());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package site.geekie.shop.shoppingmall.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import site.geekie.shop.shoppingmall.entity.ProductSummaryDO;
+import site.geekie.shop.shoppingmall.mapper.ProductMapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品检索测试
+ *
+ * 分词：查询词的全部词元都出现在商品文本的词元中即成为候选（candidate），候选集合包含 LIKE '%kw%' 的全部结果，
+ * 但词元不要求相邻，可能多出不含关键词的商品。
+ * 检索：候选再逐个校验 name / subtitle 包含关键词，结果与总数同 LIKE。
+ */
+class ProductSearchIndexTest {
+
+    @Test
+    void latinSubstringMatches() {
+        assertTrue(candidate("iPhone 15", "phone"));
+        assertTrue(candidate("iPhone 15", "iphone"));
+        assertTrue(candidate("iPhone 15", "15"));
+        assertTrue(candidate("iPhone 15", "one"));
+        assertFalse(candidate("iPhone 15", "phones"));
+    }
+
+    @Test
+    void mixedLatinDigitRunMatchesInnerParts() {
+        assertTrue(candidate("iPhone15Pro", "15"));
+        assertTrue(candidate("iPhone15Pro", "pro"));
+        assertTrue(candidate("iPhone15Pro", "15pro"));
+        assertTrue(candidate("iPhone15Pro", "IPHONE15PRO"));
+        assertFalse(candidate("iPhone15Pro", "16"));
+    }
+
+    @Test
+    void hanAndLatinMixedText() {
+        assertTrue(candidate("华为Mate60 手机壳", "mate"));
+        assertTrue(candidate("华为Mate60 手机壳", "60"));
+        assertTrue(candidate("华为Mate60 手机壳", "手机"));
+        assertTrue(candidate("华为Mate60 手机壳", "壳"));
+        assertTrue(candidate("华为Mate60 手机壳", "华为 mate60"));
+        assertFalse(candidate("华为Mate60 手机壳", "手机膜"));
+    }
+
+    @Test
+    void queryTermsUseWholeShortWordsAndTrigramsForLongWords() {
+        assertEquals(List.of("15"), ProductSearchIndex.queryTerms("15"));
+        assertEquals(List.of("pro"), ProductSearchIndex.queryTerms("Pro"));
+        assertEquals(List.of("pho", "hon", "one"), ProductSearchIndex.queryTerms("phone"));
+        assertEquals(List.of("手机", "机壳", "ab"), ProductSearchIndex.queryTerms("手机壳 AB"));
+        assertTrue(ProductSearchIndex.queryTerms(" - %").isEmpty());
+    }
+
+    @Test
+    void tokenizeCountsHanCharsAndLatinRuns() {
+        assertEquals(4, ProductSearchIndex.tokenize("iPhone 15 手机", 1, new HashMap<>()));
+
+        Map<String, Integer> tf = new HashMap<>();
+        assertEquals(1, ProductSearchIndex.tokenize("ab", 3, tf));
+        assertEquals(Map.of("a", 3, "b", 3, "ab", 3), tf);
+    }
+
+    @Test
+    void scatteredGramsAreCandidatesButNotHits() {
+        // "phone" 的三元组 pho / hon / one 分别出现在 photo、honda、money 中，但不构成子串
+        assertTrue(candidate("photo money honda", "phone"));
+
+        ProductSearchIndex index = indexOf(
+                product(1L, "photo money honda", null),
+                product(2L, "iPhone 15", null),
+                product(3L, "手机壳", "适用 iPhone15Pro"));
+
+        ProductSearchIndex.SearchResult result = index.search("phone", null, null, 0, 10);
+        assertEquals(2, result.total());
+        assertEquals(Set.of(2L, 3L), Set.copyOf(result.ids()));
+
+        assertEquals(List.of(3L), index.search("15PRO", null, null, 0, 10).ids());
+        assertEquals(0, index.search("money phone", null, null, 0, 10).total());
+    }
+
+    @Test
+    void wildcardOrUnindexableKeywordsFallBackToSql() {
+        ProductSearchIndex index = indexOf(product(1L, "iPhone 15", null));
+        assertTrue(index.canSearch("phone"));
+        assertFalse(index.canSearch("ph_ne"));
+        assertFalse(index.canSearch("100%"));
+        assertFalse(index.canSearch(" - "));
+    }
+
+    private static ProductSearchIndex indexOf(ProductSummaryDO... products) {
+        ProductMapper mapper = mock(ProductMapper.class);
+        doAnswer(inv -> {
+            ResultHandler<ProductSummaryDO> handler = inv.getArgument(0);
+            for (ProductSummaryDO product : products) {
+                @SuppressWarnings("unchecked")
+                ResultContext<ProductSummaryDO> context = mock(ResultContext.class);
+                when(context.getResultObject()).thenReturn(product);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).scanSearchFields(any());
+        ProductSearchIndex index = new ProductSearchIndex(mapper, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry());
+        index.init();
+        index.rebuild();
+        return index;
+    }
+
+    private static ProductSummaryDO product(Long id, String name, String subtitle) {
+        ProductSummaryDO product = new ProductSummaryDO();
+        product.setId(id);
+        product.setCategoryId(1L);
+        product.setStatus(1);
+        product.setSalesCount(0);
+        product.setName(name);
+        product.setSubtitle(subtitle);
+        return product;
+    }
+
+    private static boolean candidate(String text, String keyword) {
+        Map<String, Integer> tf = new HashMap<>();
+        ProductSearchIndex.tokenize(text, 1, tf);
+        List<String> terms = ProductSearchIndex.queryTerms(keyword);
+        return !terms.isEmpty() && tf.keySet().containsAll(terms);
+    }
+}
@@ -15,6 +15,19 @@ export const register = (data) => {
   })
 }
 
+/**
+ * 检查用户名是否可用（注册表单实时校验）
+ * @param {string} username - 用户名
+ * @returns {Promise<boolean>} true 表示可用
+ */
+export const checkUsernameAvailable = (username) => {
+  return request({
+    url: '/auth/username-available',
+    method: 'GET',
+    params: { username }
+  })
+}
+
 /**
  * 用户登录
  * @param {Object} data - 登录信息 { username, password }
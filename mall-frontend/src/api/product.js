@@ -51,3 +51,28 @@ export const getProductDetail = (id) => {
     method: 'GET'
   })
 }
+
+/**
+ * 批量获取商品（最多 100 个）
+ * @param {number[]} ids - 商品 ID 列表
+ */
+export const getProductsByIds = (ids) => {
+  return request({
+    url: '/products/batch',
+    method: 'GET',
+    params: { ids: ids.join(',') }
+  })
+}
+
+/**
+ * 搜索联想
+ * @param {string} q - 用户输入
+ * @param {number} limit - 返回条数（最大 20）
+ */
+export const getSuggestions = (q, limit = 10) => {
+  return request({
+    url: '/products/suggest',
+    method: 'GET',
+    params: { q, limit }
+  })
+}